@@ -0,0 +1,80 @@
+package org.arya.banking.user;
+
+import com.google.gson.Gson;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.arya.banking.user.cache.RegistrationStateCache;
+import org.arya.banking.user.cache.UserProfileCache;
+import org.arya.banking.user.mapper.UserMapper;
+import org.arya.banking.user.outbox.UserEventAvroCodec;
+import org.arya.banking.user.outbox.UserOutboxCoalescer;
+import org.arya.banking.user.outbox.UserOutboxDispatcher;
+import org.arya.banking.user.repository.RegistrationProgressRepository;
+import org.arya.banking.user.repository.SecurityDetailsRepository;
+import org.arya.banking.user.repository.UserAvroOutboxEventRepository;
+import org.arya.banking.user.repository.UserOutboxEventRepository;
+import org.arya.banking.user.repository.UserRepository;
+import org.arya.banking.user.service.KeyCloakProvisioningService;
+import org.arya.banking.user.service.impl.UserServiceImpl;
+import org.arya.banking.user.util.UserIdGenerator;
+import org.arya.banking.user.util.UserValidator;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Builds the services measured by the benchmarks, so the benchmarks do not depend on constructor argument order.
+ * <p>
+ * Only the collaborators a benchmark measures are passed in. Every other collaborator is a stub that throws
+ * {@link UnsupportedOperationException} naming itself, so a benchmark that reaches an unexpected dependency fails
+ * loudly instead of with a {@link NullPointerException}.
+ * </p>
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Builds a {@link UserServiceImpl} reading users through the given repository and cache.
+     *
+     * @param userRepository the repository users are read from
+     * @param userProfileCache the profile cache, typically disabled so every lookup reaches the repository
+     * @return the user service
+     */
+    public static UserServiceImpl userService(UserRepository userRepository, UserProfileCache userProfileCache) {
+        return new UserServiceImpl(userRepository,
+                unwired(SecurityDetailsRepository.class),
+                unwired(UserMapper.class),
+                unwired(KeyCloakProvisioningService.class),
+                userValidator(),
+                userProfileCache,
+                unwired(UserIdGenerator.class));
+    }
+
+    /**
+     * Builds a {@link UserValidator} that can check registration levels and build outbox events, but not persist
+     * anything.
+     *
+     * @return the user validator
+     */
+    public static UserValidator userValidator() {
+        return new UserValidator(unwired(RegistrationProgressRepository.class),
+                unwired(UserOutboxEventRepository.class),
+                unwired(UserAvroOutboxEventRepository.class),
+                unwired(RegistrationStateCache.class),
+                unwired(UserEventAvroCodec.class),
+                unwired(UserOutboxDispatcher.class),
+                unwired(UserOutboxCoalescer.class),
+                new Gson(),
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * Returns a stub of a collaborator the benchmark is not expected to use.
+     */
+    public static <T> T unwired(Class<T> type) {
+        return mock(type, invocation -> {
+            throw new UnsupportedOperationException(type.getSimpleName() + " is not wired in this benchmark, called "
+                    + invocation.getMethod().getName());
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package org.arya.banking.user.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the realm role mapping that built a new authority list on every request with the cached
+ * {@link RealmRoleAuthoritiesConverter}, for a service token of the auth-service carrying the usual Keycloak realm
+ * roles, both on their own and inside the full JWT to authentication conversion.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class JwtAuthoritiesBenchmark {
+
+    private Converter<Jwt, Collection<GrantedAuthority>> streaming;
+    private RealmRoleAuthoritiesConverter cached;
+    private JwtAuthenticationConverter converter;
+    private Jwt jwt;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        streaming = JwtAuthoritiesBenchmark::mapRealmRolesPerCall;
+        cached = new RealmRoleAuthoritiesConverter(new SimpleMeterRegistry(), 1000);
+        converter = new SecurityConfig().jwtAuthenticationConverter(cached);
+        Instant issuedAt = Instant.now();
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("service-account-arya-banking-auth-service")
+                .claim("jti", "2f1c6b0e-8d7a-4c36-9e59-0a4e1d8b7c21")
+                .claim("realm_access", Map.of("roles", List.of("INTERNAL_SERVICE", "offline_access", "uma_authorization", "default-roles-arya")))
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plusSeconds(300)).build();
+    }
+
+    /**
+     * The mapping as it was before the cache: claims lookup, stream and a new list of new authorities per call.
+     */
+    @SuppressWarnings("unchecked")
+    private static Collection<GrantedAuthority> mapRealmRolesPerCall(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaim("realm_access");
+        if (realmAccess == null || realmAccess.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Collection<String> roles = (Collection<String>) realmAccess.get("roles");
+        if (roles == null) {
+            return Collections.emptyList();
+        }
+        return roles.stream()
+                .map(role -> "ROLE_" + role)
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> streamingAuthorities() {
+        return streaming.convert(jwt);
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> cachedAuthorities() {
+        return cached.convert(jwt);
+    }
+
+    @Benchmark
+    public AbstractAuthenticationToken convert() {
+        return converter.convert(jwt);
+    }
+}
@@ -0,0 +1,56 @@
+package org.arya.banking.user.outbox;
+
+import com.google.gson.Gson;
+import org.arya.banking.common.avro.UserCreateEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Gson JSON outbox payload with the Avro binary payload of the same {@link UserCreateEvent}.
+ * Serialized sizes are printed once per trial.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class OutboxPayloadBenchmark {
+
+    private final Gson gson = new Gson();
+    private final UserEventAvroCodec codec = new UserEventAvroCodec();
+    private UserCreateEvent userCreateEvent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userCreateEvent = UserCreateEvent.newBuilder()
+                .setUserId("ARYA01J9ZK3M4N5P6Q")
+                .setStatus("ADDRESS_ADDED")
+                .setIsContactVerified(false)
+                .setIsEmailVerified(false).build();
+        System.out.printf("%nbytes/event json=%d avro=%d%n",
+                gson.toJson(userCreateEvent).getBytes(StandardCharsets.UTF_8).length, codec.encode(userCreateEvent).length);
+    }
+
+    @Benchmark
+    public String gsonJson() {
+        return gson.toJson(userCreateEvent);
+    }
+
+    @Benchmark
+    public byte[] avroBinary() {
+        return codec.encode(userCreateEvent);
+    }
+}
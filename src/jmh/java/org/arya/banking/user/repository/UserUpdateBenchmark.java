@@ -0,0 +1,88 @@
+package org.arya.banking.user.repository;
+
+import com.mongodb.MongoClientSettings;
+import org.arya.banking.common.model.ContactNumber;
+import org.arya.banking.common.model.ContactNumberType;
+import org.arya.banking.common.model.User;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the BSON a contact number update sends to Mongo: the whole user document written back by a
+ * load-modify-save against the targeted update pipeline of {@link UserRepositoryCustomImpl}.
+ * Bytes per update are printed once per trial; the saved read round trip only shows against a live database.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class UserUpdateBenchmark {
+
+    private static final String NEW_PRIMARY = "9000000009";
+
+    private final Codec<Document> codec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+    private MappingMongoConverter converter;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        converter.afterPropertiesSet();
+        user = new User();
+        user.setUserId("ARYA01J9ZK3M4N5P6Q");
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmailId("john.doe@example.com");
+        user.setPrimaryContactNumber("9876543210");
+        user.setStatus("ACTIVE");
+        user.setContactNumbers(new ArrayList<>(IntStream.range(0, 4).mapToObj(i -> ContactNumber.builder()
+                .contactNumber("98765432" + i + i)
+                .type(i == 0 ? ContactNumberType.PRIMARY : ContactNumberType.OTHERS)
+                .isVerified(false).build()).toList()));
+        System.out.printf("%nbytes/update full-document=%d targeted=%d%n",
+                size(fullDocumentWrite()), size(targetedUpdate()));
+    }
+
+    private int size(Document document) {
+        return new RawBsonDocument(document, codec).getByteBuffer().remaining();
+    }
+
+    @Benchmark
+    public Document fullDocumentWrite() {
+        Document document = new Document();
+        converter.write(user, document);
+        return document;
+    }
+
+    @Benchmark
+    public Document targetedUpdate() {
+        Object primary = converter.convertToMongoType(ContactNumber.builder()
+                .contactNumber(NEW_PRIMARY)
+                .type(ContactNumberType.PRIMARY)
+                .isVerified(false).build());
+        return new Document("q", new Document("userId", user.getUserId()))
+                .append("u", List.of(UserRepositoryCustomImpl.setPrimaryContactNumberStage(NEW_PRIMARY, primary)));
+    }
+}
@@ -0,0 +1,103 @@
+package org.arya.banking.user.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.BenchmarkFixtures;
+import org.arya.banking.user.cache.UserProfileCache;
+import org.arya.banking.user.dto.UserBatchResponse;
+import org.arya.banking.user.repository.UserRepository;
+import org.arya.banking.user.repository.UserSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+/**
+ * Compares looking up N users with N {@code getUserById} calls against one {@code getUsersByIds} call.
+ * <p>
+ * The repository is a stub that charges {@code roundTripMicros} per query, standing in for the Mongo round trip,
+ * and the profile cache is disabled so every lookup reaches the repository.
+ * </p>
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class UserBatchLookupBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int ids;
+
+    @Param({"500"})
+    private long roundTripMicros;
+
+    private UserService userService;
+    private List<String> userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userIds = IntStream.range(0, ids).mapToObj(i -> String.format("ARYA%09d", i)).toList();
+        UserProfileCache disabledCache = new UserProfileCache(new SimpleMeterRegistry(), 0, Duration.ZERO, 0);
+        userService = BenchmarkFixtures.userService(stubRepository(), disabledCache);
+    }
+
+    private UserRepository stubRepository() {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findSnapshotByUserId" -> {
+                        roundTrip();
+                        yield Optional.of(user((String) args[0]));
+                    }
+                    case "findSnapshotsByUserIdIn" -> {
+                        roundTrip();
+                        yield ((Collection<?>) args[0]).stream().map(userId -> user((String) userId)).toList();
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private void roundTrip() {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+    }
+
+    private static UserSnapshot user(String userId) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setFirstName("John");
+        user.setLastName("Doe");
+        user.setEmailId(userId.toLowerCase() + "@example.com");
+        return new UserSnapshot(user, 0L);
+    }
+
+    @Benchmark
+    public void nCalls(Blackhole blackhole) {
+        for (String userId : userIds) {
+            blackhole.consume(userService.getUserById(userId));
+        }
+    }
+
+    @Benchmark
+    public UserBatchResponse batch() {
+        return userService.getUsersByIds(userIds);
+    }
+}
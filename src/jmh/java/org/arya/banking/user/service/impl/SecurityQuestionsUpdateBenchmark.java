@@ -0,0 +1,66 @@
+package org.arya.banking.user.service.impl;
+
+import org.arya.banking.common.model.SecurityDetails;
+import org.arya.banking.common.model.SecurityQuestions;
+import org.arya.banking.user.dto.UpdateSecurityDetailsDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Measures {@link SecurityDetailsServiceImpl#updateSecurityQuestions} for a user setting their questions for
+ * the first time and for a user answering the same questions again. The existing questions are rebuilt on every
+ * invocation, since the update changes their answers in place, and are part of the measured cost.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SecurityQuestionsUpdateBenchmark {
+
+    @Param({"3", "10"})
+    private int questions;
+
+    private UpdateSecurityDetailsDto updateSecurityDetailsDto;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        updateSecurityDetailsDto = new UpdateSecurityDetailsDto(questions("answer"), false);
+    }
+
+    private List<SecurityQuestions> questions(String answer) {
+        return IntStream.range(0, questions).mapToObj(i -> SecurityQuestions.builder()
+                .question("Question " + i)
+                .answer(answer + " " + i).build()).toList();
+    }
+
+    @Benchmark
+    public SecurityDetails firstQuestions() {
+        SecurityDetails securityDetails = SecurityDetails.builder().userId("ARYA01J9ZK3M4N5P6Q").build();
+        SecurityDetailsServiceImpl.updateSecurityQuestions(updateSecurityDetailsDto, securityDetails);
+        return securityDetails;
+    }
+
+    @Benchmark
+    public SecurityDetails replacedAnswers() {
+        SecurityDetails securityDetails = SecurityDetails.builder().userId("ARYA01J9ZK3M4N5P6Q")
+                .securityQuestions(questions("previous answer")).build();
+        SecurityDetailsServiceImpl.updateSecurityQuestions(updateSecurityDetailsDto, securityDetails);
+        return securityDetails;
+    }
+}
@@ -0,0 +1,49 @@
+package org.arya.banking.user.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.arya.banking.common.utils.CommonUtils.generateSHA256hash;
+
+/**
+ * Compares the Snowflake generator with the previous SHA-256 of name and current millis, single threaded and
+ * under contention.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class UserIdGeneratorBenchmark {
+
+    private final SnowflakeUserIdGenerator snowflake = new SnowflakeUserIdGenerator(1, System::currentTimeMillis);
+
+    @Benchmark
+    public String sha256OfNameAndMillis() {
+        StringBuilder valueToHash = new StringBuilder("John");
+        valueToHash.append("Doe").append(System.currentTimeMillis());
+        return "ARYA" + generateSHA256hash(valueToHash.toString()).substring(0, 6).toUpperCase();
+    }
+
+    @Benchmark
+    public String snowflake() {
+        return snowflake.generate();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snowflakeContended() {
+        return snowflake.generate();
+    }
+}
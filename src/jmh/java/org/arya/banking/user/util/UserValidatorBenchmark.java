@@ -0,0 +1,73 @@
+package org.arya.banking.user.util;
+
+import org.arya.banking.common.model.Address;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.BenchmarkFixtures;
+import org.arya.banking.user.outbox.UserOutboxEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the registration level check run on every user and security details update, for a user who has only
+ * completed the basic details and one who has also added an address, and the outbox event built with its Gson
+ * payload after each of them.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class UserValidatorBenchmark {
+
+    private UserValidator userValidator;
+    private User basicUser;
+    private User addressUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        userValidator = BenchmarkFixtures.userValidator();
+        basicUser = new User();
+        basicUser.setUserId("ARYA01J9ZK3M4N5P6Q");
+        basicUser.setFirstName("John");
+        basicUser.setLastName("Doe");
+        basicUser.setEmailId("john.doe@example.com");
+        basicUser.setPrimaryContactNumber("9876543210");
+        basicUser.setStatus("ACTIVE");
+        addressUser = new User();
+        addressUser.setUserId(basicUser.getUserId());
+        addressUser.setFirstName(basicUser.getFirstName());
+        addressUser.setLastName(basicUser.getLastName());
+        addressUser.setEmailId(basicUser.getEmailId());
+        addressUser.setPrimaryContactNumber(basicUser.getPrimaryContactNumber());
+        addressUser.setStatus(basicUser.getStatus());
+        addressUser.setAddresss(List.of(Address.builder().build()));
+    }
+
+    @Benchmark
+    public int validateRegistrationLevelBasicDetails() {
+        return userValidator.validateRegistrationLevel(basicUser);
+    }
+
+    @Benchmark
+    public int validateRegistrationLevelAddressAdded() {
+        return userValidator.validateRegistrationLevel(addressUser);
+    }
+
+    @Benchmark
+    public UserOutboxEvent getUserOutboxEvent() {
+        return userValidator.getUserOutboxEvent(basicUser.getUserId(), false, false, "ADDRESS_ADDED");
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @Slf4j
 @SpringBootApplication(exclude = {
@@ -20,6 +21,7 @@ import org.springframework.data.mongodb.config.EnableMongoAuditing;
 })
 @ComponentScan(basePackages = {"org.arya.banking.user", "org.arya.banking.common"})
 @EnableMongoAuditing
+@EnableScheduling
 @EnableDiscoveryClient
 @EnableFeignClients(defaultConfiguration = OAuth2FeignConfig.class)
 public class AryaBankingUserServiceApplication {
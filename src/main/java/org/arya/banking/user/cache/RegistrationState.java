@@ -0,0 +1,56 @@
+package org.arya.banking.user.cache;
+
+import org.arya.banking.common.constants.RegistrationConstants;
+import org.arya.banking.common.model.RegistrationProgress;
+
+import java.util.List;
+
+/**
+ * Compact, immutable view of the registration steps a user has completed.
+ * <p>
+ * Each completed {@link RegistrationConstants} step is one bit of {@code completedSteps}, indexed by its ordinal;
+ * {@code complete} is set once any step carrying the {@code REGISTRATION_COMPLETE} status has been recorded.
+ * </p>
+ *
+ * @param completedSteps bitset of completed steps
+ * @param complete whether the registration is complete
+ */
+public record RegistrationState(long completedSteps, boolean complete) {
+
+    public static final String REGISTRATION_COMPLETE = "REGISTRATION_COMPLETE";
+
+    public static final RegistrationState EMPTY = new RegistrationState(0L, false);
+
+    /**
+     * Builds the state from the registration progress documents of a user.
+     *
+     * @param registrationProgresses all registration progress documents of the user
+     * @return the registration state
+     */
+    public static RegistrationState of(List<RegistrationProgress> registrationProgresses) {
+        RegistrationState state = EMPTY;
+        for (RegistrationProgress registrationProgress : registrationProgresses) {
+            for (RegistrationConstants step : RegistrationConstants.values()) {
+                if (step.getSubStatus().equals(registrationProgress.getSubStatus())) {
+                    state = state.withCompleted(step);
+                }
+            }
+            if (REGISTRATION_COMPLETE.equals(registrationProgress.getStatus())) {
+                state = new RegistrationState(state.completedSteps, true);
+            }
+        }
+        return state;
+    }
+
+    public boolean isCompleted(RegistrationConstants step) {
+        return (completedSteps & bit(step)) != 0;
+    }
+
+    public RegistrationState withCompleted(RegistrationConstants step) {
+        return new RegistrationState(completedSteps | bit(step), complete || REGISTRATION_COMPLETE.equals(step.getStatus()));
+    }
+
+    private static long bit(RegistrationConstants step) {
+        return 1L << step.ordinal();
+    }
+}
@@ -0,0 +1,85 @@
+package org.arya.banking.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.arya.banking.common.constants.RegistrationConstants;
+import org.arya.banking.user.repository.RegistrationProgressRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Bounded cache of the {@link RegistrationState} of each user.
+ * <p>
+ * A miss loads all registration progress documents of the user with a single query. Completed steps are only
+ * ever added, so entries are updated in place with an atomic compute instead of being invalidated.
+ * </p>
+ * <p>
+ * The cache is local to the instance and never learns about steps recorded by other instances, so it only spares
+ * writes: a step it reports as completed is skipped, while a step it does not know about is still recorded with an
+ * upsert that leaves an existing record in place.
+ * </p>
+ */
+@Component
+public class RegistrationStateCache {
+
+    public static final String CACHE_NAME = "registration-state";
+
+    private final Cache<String, RegistrationState> cache;
+    private final RegistrationProgressRepository registrationProgressRepository;
+
+    public RegistrationStateCache(RegistrationProgressRepository registrationProgressRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${arya.user.cache.registration-state.maximum-size:10000}") long maximumSize,
+                                  @Value("${arya.user.cache.registration-state.expire-after-access:PT30M}") Duration expireAfterAccess) {
+        this.registrationProgressRepository = registrationProgressRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Returns the registration state of the user, loading it on a miss.
+     *
+     * @param userId the unique identifier of the user
+     * @return the registration state
+     */
+    public RegistrationState get(String userId) {
+        return cache.get(userId, id -> RegistrationState.of(registrationProgressRepository.findByUserId(id)));
+    }
+
+    /**
+     * Records a completed step for a cached user; uncached users pick it up from the database on their next load.
+     * <p>
+     * Inside a transaction the step is only recorded once it commits, so a rolled back step never shows up as
+     * completed and a state loaded concurrently from the uncommitted database still gains the step afterwards.
+     * </p>
+     *
+     * @param userId the unique identifier of the user
+     * @param step the completed registration step
+     */
+    public void markCompleted(String userId, RegistrationConstants step) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordCompleted(userId, step);
+                }
+            });
+        } else {
+            recordCompleted(userId, step);
+        }
+    }
+
+    private void recordCompleted(String userId, RegistrationConstants step) {
+        cache.asMap().computeIfPresent(userId, (id, state) -> state.withCompleted(step));
+    }
+}
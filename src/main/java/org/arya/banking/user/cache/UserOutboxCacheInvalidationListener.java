@@ -0,0 +1,31 @@
+package org.arya.banking.user.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.arya.banking.user.outbox.UserAvroOutboxEvent;
+import org.arya.banking.user.outbox.UserOutboxEvent;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops the cached profile of a user whenever an outbox event is written for that user.
+ * <p>
+ * Every user state change is announced through the outbox, in either payload format, so an outbox write for
+ * an aggregate means the cached profile of that aggregate may be stale.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class UserOutboxCacheInvalidationListener extends AbstractMongoEventListener<Object> {
+
+    private final UserProfileCache userProfileCache;
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event) {
+        if (event.getSource() instanceof UserOutboxEvent userOutboxEvent) {
+            userProfileCache.invalidate(userOutboxEvent.getAggregateId());
+        } else if (event.getSource() instanceof UserAvroOutboxEvent userAvroOutboxEvent) {
+            userProfileCache.invalidate(userAvroOutboxEvent.getAggregateId());
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.arya.banking.user.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.repository.UserSnapshot;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded, read-through cache of user profiles keyed by userId.
+ * <p>
+ * Full profiles and the much smaller summaries served to sparse fieldset reads are cached separately. Full
+ * profiles are cached together with the version of their document, so a profile and its ETag always come from the
+ * same entry. Entries are evicted by size and by time since they were loaded, and are invalidated whenever the user
+ * document or an outbox event for the same aggregate is written. Profiles loaded outside the cache, as by the
+ * reactive stack, are only cached if no invalidation of the user happened while they were loaded. Hit, miss and
+ * eviction counts are published through Micrometer under the {@code user-profile} and {@code user-summary} cache
+ * names.
+ * </p>
+ */
+@Slf4j
+@Component
+public class UserProfileCache {
+
+    public static final String CACHE_NAME = "user-profile";
+    public static final String SUMMARY_CACHE_NAME = "user-summary";
+
+    private static final int INVALIDATION_STRIPES = 1024;
+
+    private final Cache<String, UserSnapshot> cache;
+    private final Cache<String, User> summaryCache;
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+
+    public UserProfileCache(MeterRegistry meterRegistry,
+                            @Value("${arya.user.cache.profile.maximum-size:10000}") long maximumSize,
+                            @Value("${arya.user.cache.profile.expire-after-write:PT5M}") Duration expireAfterWrite,
+                            @Value("${arya.user.cache.summary.maximum-size:50000}") long summaryMaximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.summaryCache = Caffeine.newBuilder()
+                .maximumSize(summaryMaximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, summaryCache, SUMMARY_CACHE_NAME);
+    }
+
+    /**
+     * Returns the cached profile for the user, loading it with the given function on a miss.
+     *
+     * @param userId the unique identifier of the user
+     * @param loader function loading the user from the database; exceptions are propagated and nothing is cached
+     * @return the cached or freshly loaded user and the version of its document
+     */
+    public UserSnapshot get(String userId, Function<String, UserSnapshot> loader) {
+        return cache.get(userId, loader);
+    }
+
+    /**
+     * Returns the cached profile for the user without loading it.
+     *
+     * @param userId the unique identifier of the user
+     * @return the cached user and the version of its document, or null on a miss
+     */
+    public UserSnapshot getIfPresent(String userId) {
+        return cache.getIfPresent(userId);
+    }
+
+    /**
+     * Returns a stamp to take before loading a profile outside of {@link #get(String, Function)}, such as by a
+     * reactive repository, and to pass to {@link #put(String, UserSnapshot, long)} once it is loaded.
+     *
+     * @param userId the unique identifier of the user
+     * @return the number of invalidations seen so far for users sharing the user's stripe
+     */
+    public long invalidationStamp(String userId) {
+        return invalidations.get(stripe(userId));
+    }
+
+    /**
+     * Caches a profile loaded outside of {@link #get(String, Function)}, unless the user was invalidated since the
+     * load started; a profile read before a concurrent write committed is then dropped instead of being served
+     * until it expires.
+     *
+     * @param userId the unique identifier of the user
+     * @param snapshot the freshly loaded user and the version of its document
+     * @param stamp the {@link #invalidationStamp(String)} taken before the load
+     */
+    public void put(String userId, UserSnapshot snapshot, long stamp) {
+        cache.put(userId, snapshot);
+        if (invalidationStamp(userId) != stamp) {
+            cache.invalidate(userId);
+        }
+    }
+
+    /**
+     * Returns the cached summary for the user, loading it with the given function on a miss. A summary is a user
+     * holding only the {@link org.arya.banking.user.constants.UserProfileField#SUMMARY} fields, so many more of
+     * them fit in memory than full profiles.
+     *
+     * @param userId the unique identifier of the user
+     * @param loader function loading the summary from the database; exceptions are propagated and nothing is cached
+     * @return the cached or freshly loaded summary
+     */
+    public User getSummary(String userId, Function<String, User> loader) {
+        return summaryCache.get(userId, loader);
+    }
+
+    /**
+     * Returns the cached profiles of the users, loading all misses with a single call of the given function.
+     *
+     * @param userIds the unique identifiers of the users
+     * @param loader function loading the missing users from the database; users it does not return are absent
+     *               from the result and are not cached
+     * @return the cached or freshly loaded users and the versions of their documents keyed by userId
+     */
+    public Map<String, UserSnapshot> getAll(Iterable<String> userIds, Function<Set<? extends String>, Map<String, UserSnapshot>> loader) {
+        return cache.getAll(userIds, loader);
+    }
+
+    /**
+     * Removes the profile and summary of the user from the cache.
+     * <p>
+     * When called inside a transaction the entry is dropped again after commit, so a concurrent reader
+     * cannot re-populate the cache with the pre-commit document.
+     * </p>
+     *
+     * @param userId the unique identifier of the user
+     */
+    public void invalidate(String userId) {
+        if (null == userId) {
+            return;
+        }
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(userId);
+                }
+            });
+        }
+        log.debug("Invalidated cached profile for user: {}", userId);
+    }
+
+    private void evict(String userId) {
+        invalidations.incrementAndGet(stripe(userId));
+        cache.invalidate(userId);
+        summaryCache.invalidate(userId);
+    }
+
+    private static int stripe(String userId) {
+        return (userId.hashCode() & Integer.MAX_VALUE) % INVALIDATION_STRIPES;
+    }
+}
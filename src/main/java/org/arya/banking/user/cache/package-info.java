@@ -0,0 +1,8 @@
+/**
+ * Provides in-process caches for frequently read user data.
+ * <p>
+ * This package contains bounded caches placed in front of the Mongo repositories, together with the
+ * listeners that keep them consistent with writes made by this service.
+ * </p>
+ */
+package org.arya.banking.user.cache;
@@ -0,0 +1,223 @@
+package org.arya.banking.user.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.arya.banking.common.exception.InvalidOAuth2Client;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.client.AuthorizedClientServiceOAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientProviderBuilder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.arya.banking.common.exception.ExceptionCode.AUTH_INVALID_OAUTH_TOKEN_400;
+import static org.arya.banking.common.utils.CommonUtils.isEmpty;
+
+/**
+ * Holds the client-credentials access token used by the Feign clients of this service.
+ * <p>
+ * Requests read the current token from a volatile field without locking. The token is fetched again in the
+ * background {@code arya.user.oauth2.refresh-ahead} before it expires, so requests normally never wait for the
+ * token endpoint. When a request finds no usable token, because none was fetched yet or background refreshes kept
+ * failing, it fetches one itself; concurrent fetches collapse into a single call to the token endpoint whose
+ * result every waiting request shares.
+ * </p>
+ * <p>
+ * Fetch latency is published as the {@code arya.user.oauth2.token.fetch} timer and fetches as the
+ * {@code arya.user.oauth2.token.refresh} counter, tagged by what triggered them.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ClientCredentialsTokenHolder {
+
+    private final OAuth2AuthorizedClientManager authorizedClientManager;
+    private final OAuth2AuthorizedClientService authorizedClientService;
+    private final AtomicReference<CompletableFuture<OAuth2AccessToken>> inFlight = new AtomicReference<>();
+    private final ScheduledExecutorService refresher;
+    private final AtomicReference<ScheduledFuture<?>> nextRefresh = new AtomicReference<>();
+    private final Timer fetchTimer;
+    private final Counter scheduledRefreshes;
+    private final Counter onDemandRefreshes;
+
+    private volatile OAuth2AccessToken accessToken;
+
+    @Value("${app.security.client-registrationId}")
+    private String clientRegistrationId;
+
+    @Value("${arya.user.oauth2.refresh-ahead:PT30S}")
+    private Duration refreshAhead;
+
+    @Value("${arya.user.oauth2.min-validity:PT5S}")
+    private Duration minValidity;
+
+    @Value("${arya.user.oauth2.retry-delay:PT5S}")
+    private Duration retryDelay;
+
+    @Autowired
+    public ClientCredentialsTokenHolder(ClientRegistrationRepository clientRegistrationRepository,
+                                        OAuth2AuthorizedClientService authorizedClientService,
+                                        MeterRegistry meterRegistry) {
+        this(clientCredentialsManager(clientRegistrationRepository, authorizedClientService), authorizedClientService, meterRegistry,
+                Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "oauth2-token-refresher");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    ClientCredentialsTokenHolder(OAuth2AuthorizedClientManager authorizedClientManager,
+                                 OAuth2AuthorizedClientService authorizedClientService,
+                                 MeterRegistry meterRegistry,
+                                 ScheduledExecutorService refresher) {
+        this.authorizedClientManager = authorizedClientManager;
+        this.authorizedClientService = authorizedClientService;
+        this.refresher = refresher;
+        this.fetchTimer = Timer.builder("arya.user.oauth2.token.fetch")
+                .description("Latency of client-credentials token requests")
+                .register(meterRegistry);
+        this.scheduledRefreshes = Counter.builder("arya.user.oauth2.token.refresh")
+                .description("Client-credentials token requests")
+                .tag("trigger", "scheduled")
+                .register(meterRegistry);
+        this.onDemandRefreshes = Counter.builder("arya.user.oauth2.token.refresh")
+                .description("Client-credentials token requests")
+                .tag("trigger", "on-demand")
+                .register(meterRegistry);
+    }
+
+    private static OAuth2AuthorizedClientManager clientCredentialsManager(ClientRegistrationRepository clientRegistrationRepository,
+                                                                          OAuth2AuthorizedClientService authorizedClientService) {
+        AuthorizedClientServiceOAuth2AuthorizedClientManager authorizedClientManager =
+                new AuthorizedClientServiceOAuth2AuthorizedClientManager(clientRegistrationRepository, authorizedClientService);
+        authorizedClientManager.setAuthorizedClientProvider(OAuth2AuthorizedClientProviderBuilder.builder()
+                .clientCredentials().build());
+        return authorizedClientManager;
+    }
+
+    /**
+     * Returns the current access token, fetching one first if there is no token valid for at least
+     * {@code arya.user.oauth2.min-validity}.
+     *
+     * @return the bearer token value
+     */
+    public String getTokenValue() {
+        OAuth2AccessToken current = accessToken;
+        if (isUsable(current)) {
+            return current.getTokenValue();
+        }
+        try {
+            return refresh(onDemandRefreshes, false).join().getTokenValue();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private boolean isUsable(OAuth2AccessToken token) {
+        return null != token && (null == token.getExpiresAt() || token.getExpiresAt().isAfter(Instant.now().plus(minValidity)));
+    }
+
+    /**
+     * Fetches a new token unless a fetch is already running, in which case its result is shared.
+     * <p>
+     * A fetch that completed between the caller reading the token and winning the {@code inFlight} slot has already
+     * stored a fresh token, so unless {@code force} is set the token is checked again first and reused when usable.
+     * </p>
+     *
+     * @param trigger the counter of the fetch trigger
+     * @param force whether to fetch even if the current token is still usable, as background refreshes ahead of
+     *              expiry do
+     */
+    private CompletableFuture<OAuth2AccessToken> refresh(Counter trigger, boolean force) {
+        while (true) {
+            CompletableFuture<OAuth2AccessToken> running = inFlight.get();
+            if (null != running) {
+                return running;
+            }
+            CompletableFuture<OAuth2AccessToken> fetch = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, fetch)) {
+                try {
+                    OAuth2AccessToken current = accessToken;
+                    if (!force && isUsable(current)) {
+                        fetch.complete(current);
+                        return fetch;
+                    }
+                    trigger.increment();
+                    OAuth2AccessToken token = fetchTimer.record(this::fetchToken);
+                    accessToken = token;
+                    scheduleRefresh(token);
+                    fetch.complete(token);
+                } catch (RuntimeException e) {
+                    fetch.completeExceptionally(e);
+                } finally {
+                    inFlight.compareAndSet(fetch, null);
+                }
+                return fetch;
+            }
+        }
+    }
+
+    /**
+     * Requests a new token from the token endpoint; the stored authorized client is dropped first, as the client
+     * manager would otherwise keep returning the token it holds until it expires.
+     */
+    private OAuth2AccessToken fetchToken() {
+        authorizedClientService.removeAuthorizedClient(clientRegistrationId, clientRegistrationId);
+        OAuth2AuthorizedClient oAuth2AuthorizedClient = authorizedClientManager.authorize(OAuth2AuthorizeRequest
+                .withClientRegistrationId(clientRegistrationId)
+                .principal(clientRegistrationId).build());
+        if (isEmpty(oAuth2AuthorizedClient)) {
+            throw new InvalidOAuth2Client(400, AUTH_INVALID_OAUTH_TOKEN_400, String.format("Could not get oauth client from: %s", clientRegistrationId));
+        }
+        return oAuth2AuthorizedClient.getAccessToken();
+    }
+
+    private void scheduleRefresh(OAuth2AccessToken token) {
+        if (null == token.getExpiresAt()) {
+            return;
+        }
+        scheduleRefreshIn(Math.max(Duration.between(Instant.now(), token.getExpiresAt().minus(refreshAhead)).toMillis(), retryDelay.toMillis()));
+    }
+
+    /**
+     * Replaces the pending background refresh, so on-demand fetches and retries never leave several scheduled.
+     */
+    private void scheduleRefreshIn(long delayMs) {
+        ScheduledFuture<?> previous = nextRefresh.getAndSet(refresher.schedule(this::refreshInBackground, delayMs, TimeUnit.MILLISECONDS));
+        if (null != previous) {
+            previous.cancel(false);
+        }
+    }
+
+    private void refreshInBackground() {
+        refresh(scheduledRefreshes, true).whenComplete((token, e) -> {
+            if (null != e) {
+                log.warn("Background refresh of the client-credentials token failed, retrying in {}", retryDelay, e);
+                scheduleRefreshIn(retryDelay.toMillis());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+}
@@ -0,0 +1,147 @@
+package org.arya.banking.user.config;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign configuration applied only to {@link org.arya.banking.user.external.KeyCloakService}; it is deliberately
+ * not annotated with {@code @Configuration}, so component scanning does not apply it to every Feign client.
+ * <p>
+ * The client has its own pooled Apache HttpClient 5 transport, configured under {@code arya.user.keycloak.http}, so
+ * its connection limits and timeouts neither depend on nor change the defaults of other Feign clients. Idle
+ * connections are reused last in, first out and expire after {@code time-to-live}. On top of the transport, a
+ * bulkhead caps the calls in flight to the auth-service at {@code arya.user.keycloak.bulkhead.max-concurrent-calls};
+ * a call that cannot get a permit within {@code arya.user.keycloak.bulkhead.max-wait} fails fast with a
+ * {@link RejectedExecutionException} instead of queueing behind a slow auth-service.
+ * </p>
+ */
+@Slf4j
+public class KeyCloakFeignConfig {
+
+    private static final String CLIENT_TAG = "client";
+    private static final String CLIENT_NAME = "keycloak";
+
+    @Value("${arya.user.keycloak.http.max-connections:64}")
+    private int maxConnections;
+
+    @Value("${arya.user.keycloak.http.max-connections-per-route:16}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${arya.user.keycloak.http.time-to-live:PT60S}")
+    private Duration timeToLive;
+
+    @Value("${arya.user.keycloak.http.connect-timeout:PT1S}")
+    private Duration connectTimeout;
+
+    @Value("${arya.user.keycloak.http.read-timeout:PT3S}")
+    private Duration readTimeout;
+
+    @Value("${arya.user.keycloak.http.connection-request-timeout:PT0.5S}")
+    private Duration connectionRequestTimeout;
+
+    @Value("${arya.user.keycloak.bulkhead.max-concurrent-calls:16}")
+    private int maxConcurrentCalls;
+
+    @Value("${arya.user.keycloak.bulkhead.max-wait:PT0.05S}")
+    private Duration maxWait;
+
+    /**
+     * Builds the HTTP client of the auth-service calls; as a bean of the client's context it is closed, with its
+     * pooled connections, when the context is.
+     */
+    @Bean
+    public CloseableHttpClient keyCloakHttpClient() {
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnectionsPerRoute)
+                        .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.of(connectTimeout))
+                                .setTimeToLive(TimeValue.of(timeToLive))
+                                .build())
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .build())
+                .evictExpiredConnections()
+                .build();
+    }
+
+    @Bean
+    public Client keyCloakFeignClient(CloseableHttpClient keyCloakHttpClient) {
+        return new ApacheHttp5Client(keyCloakHttpClient);
+    }
+
+    @Bean
+    public Request.Options keyCloakRequestOptions() {
+        return new Request.Options(connectTimeout, readTimeout, true);
+    }
+
+    @Bean
+    public Capability keyCloakBulkheadCapability(MeterRegistry meterRegistry) {
+        Semaphore permits = new Semaphore(maxConcurrentCalls);
+        Timer latency = Timer.builder("arya.user.http.client.requests")
+                .description("Latency of calls to the auth-service")
+                .tag(CLIENT_TAG, CLIENT_NAME)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("arya.user.http.client.rejected")
+                .description("Calls to the auth-service shed by the bulkhead")
+                .tag(CLIENT_TAG, CLIENT_NAME)
+                .register(meterRegistry);
+        Gauge.builder("arya.user.http.client.in-flight", permits, semaphore -> maxConcurrentCalls - semaphore.availablePermits())
+                .description("Calls to the auth-service in flight")
+                .tag(CLIENT_TAG, CLIENT_NAME)
+                .register(meterRegistry);
+
+        return new Capability() {
+            @Override
+            public Client enrich(Client client) {
+                return (request, options) -> {
+                    boolean acquired;
+                    try {
+                        acquired = permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted waiting for a call permit to the auth-service", e);
+                    }
+                    if (!acquired) {
+                        rejected.increment();
+                        log.debug("Auth-service bulkhead full, rejecting call to: {}", request.url());
+                        throw new RejectedExecutionException("Auth-service bulkhead is full");
+                    }
+                    long start = System.nanoTime();
+                    try {
+                        return client.execute(request, options);
+                    } finally {
+                        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        permits.release();
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package org.arya.banking.user.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class KeyCloakProvisioningConfig {
+
+    public static final String KEYCLOAK_PROVISIONING_EXECUTOR = "keyCloakProvisioningExecutor";
+
+    @Value("${arya.user.keycloak-provisioning.pool-size:4}")
+    private int poolSize;
+
+    @Value("${arya.user.keycloak-provisioning.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    /**
+     * Executor running Keycloak provisioning attempts. Work rejected when the queue is full is dropped;
+     * the task stays persisted and is picked up by the next sweep. With virtual threads enabled the workers are
+     * virtual threads, still bounded by the pool size so the auth-service sees the same concurrency.
+     */
+    @Bean(KEYCLOAK_PROVISIONING_EXECUTOR)
+    public ThreadPoolTaskExecutor keyCloakProvisioningExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("keycloak-provisioning-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+}
@@ -0,0 +1,89 @@
+package org.arya.banking.user.config;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "arya.user.login-events.enabled", havingValue = "true")
+public class LoginEventKafkaConfig {
+
+    public static final String LOGIN_EVENT_CONTAINER_FACTORY = "loginEventListenerContainerFactory";
+    public static final String LOGIN_EVENT_DEAD_LETTER_PRODUCER_FACTORY = "loginEventDeadLetterProducerFactory";
+    public static final String LOGIN_EVENT_DEAD_LETTER_TEMPLATE = "loginEventDeadLetterTemplate";
+
+    @Value("${arya.user.login-events.concurrency:3}")
+    private int concurrency;
+
+    @Value("${arya.user.login-events.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${arya.user.login-events.retry.interval:1000}")
+    private long retryInterval;
+
+    @Value("${arya.user.login-events.retry.max-attempts:3}")
+    private long retryMaxAttempts;
+
+    /**
+     * Builds the batch listener container factory for login-attempt events.
+     * <p>
+     * Failed slices are retried with a fixed back-off, which is safe because increments are de-duplicated on
+     * partition and offset. A record that still fails is published to {@code <topic>.DLT} on the same partition,
+     * so the dead-letter topic needs at least as many partitions as the source topic.
+     * </p>
+     */
+    @Bean(LOGIN_EVENT_CONTAINER_FACTORY)
+    public ConcurrentKafkaListenerContainerFactory<String, String> loginEventListenerContainerFactory(
+            KafkaProperties kafkaProperties,
+            @Qualifier(LOGIN_EVENT_DEAD_LETTER_TEMPLATE) KafkaTemplate<String, String> deadLetterTemplate) {
+
+        Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties(null);
+        consumerProperties.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProperties.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+
+        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(consumerProperties));
+        factory.setBatchListener(true);
+        factory.setConcurrency(concurrency);
+        factory.setCommonErrorHandler(new DefaultErrorHandler(
+                new DeadLetterPublishingRecoverer(deadLetterTemplate),
+                new FixedBackOff(retryInterval, retryMaxAttempts)));
+        return factory;
+    }
+
+    /**
+     * Builds the producer factory publishing failed login-attempt records to the dead-letter topic. As a bean its
+     * producer is closed on shutdown. It is not a default candidate, so it neither replaces the auto-configured
+     * producer factory nor is injected in its place.
+     */
+    @Bean(name = LOGIN_EVENT_DEAD_LETTER_PRODUCER_FACTORY, defaultCandidate = false)
+    public DefaultKafkaProducerFactory<String, String> loginEventDeadLetterProducerFactory(KafkaProperties kafkaProperties) {
+        Map<String, Object> producerProperties = kafkaProperties.buildProducerProperties(null);
+        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        return new DefaultKafkaProducerFactory<>(producerProperties);
+    }
+
+    @Bean(name = LOGIN_EVENT_DEAD_LETTER_TEMPLATE, defaultCandidate = false)
+    public KafkaTemplate<String, String> loginEventDeadLetterTemplate(
+            @Qualifier(LOGIN_EVENT_DEAD_LETTER_PRODUCER_FACTORY) DefaultKafkaProducerFactory<String, String> deadLetterProducerFactory) {
+        return new KafkaTemplate<>(deadLetterProducerFactory);
+    }
+}
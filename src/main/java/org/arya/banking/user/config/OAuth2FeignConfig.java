@@ -2,41 +2,24 @@ package org.arya.banking.user.config;
 
 import feign.RequestInterceptor;
 import lombok.RequiredArgsConstructor;
-import org.arya.banking.common.exception.InvalidOAuth2Client;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
-import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
-import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
-
-import static org.arya.banking.common.exception.ExceptionCode.AUTH_INVALID_OAUTH_TOKEN_400;
-import static org.arya.banking.common.utils.CommonUtils.isEmpty;
 
 @Configuration
 @RequiredArgsConstructor
 public class OAuth2FeignConfig {
 
     public static final String BEARER_ = "Bearer ";
-    private final OAuth2AuthorizedClientManager authorizedClientManager;
-
-    @Value("${app.security.client-registrationId}")
-    private String clientRegistrationId;
+    private final ClientCredentialsTokenHolder clientCredentialsTokenHolder;
 
+    /**
+     * Feign calls to the auth-service also run on background threads (Keycloak provisioning), where no
+     * servlet request is bound, so the client-credentials token is taken from {@link ClientCredentialsTokenHolder},
+     * which keeps it refreshed ahead of expiry.
+     */
     @Bean
     public RequestInterceptor oauth2RequestInterceptor() {
-        return requestTemplate -> {
-
-            OAuth2AuthorizeRequest oAuth2AuthorizeRequest = OAuth2AuthorizeRequest
-                    .withClientRegistrationId(clientRegistrationId)
-                    .principal(clientRegistrationId).build();
-
-            OAuth2AuthorizedClient oAuth2AuthorizedClient = authorizedClientManager.authorize(oAuth2AuthorizeRequest);
-            if(isEmpty(oAuth2AuthorizedClient)) {
-                throw new InvalidOAuth2Client(400, AUTH_INVALID_OAUTH_TOKEN_400, String.format("Could not get oauth client from: %s", clientRegistrationId));
-            }
-            requestTemplate.header(HttpHeaders.AUTHORIZATION, BEARER_+oAuth2AuthorizedClient.getAccessToken().getTokenValue());
-        };
+        return requestTemplate -> requestTemplate.header(HttpHeaders.AUTHORIZATION, BEARER_ + clientCredentialsTokenHolder.getTokenValue());
     }
 }
@@ -0,0 +1,70 @@
+package org.arya.banking.user.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Maps the Keycloak realm roles of a JWT to {@code ROLE_} prefixed authorities.
+ * <p>
+ * Callers present the same few role sets over and over, so the authorities are cached per role set rather than
+ * per token: every token carrying the same roles, in any order and ignoring repeats and nulls, gets the same
+ * immutable authority list, built once. The cache is bounded by
+ * {@code arya.user.security.authorities-cache.maximum-size} and its hit, miss and eviction counts are published
+ * through Micrometer under the {@code jwt-authorities} cache name.
+ * </p>
+ */
+@Component
+public class RealmRoleAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+
+    public static final String CACHE_NAME = "jwt-authorities";
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Cache<Set<?>, List<GrantedAuthority>> authorities;
+
+    public RealmRoleAuthoritiesConverter(MeterRegistry meterRegistry,
+                                         @Value("${arya.user.security.authorities-cache.maximum-size:1000}") long maximumSize) {
+        this.authorities = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, authorities, CACHE_NAME);
+    }
+
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        Map<String, Object> realmAccess = jwt.getClaim("realm_access");
+        if (realmAccess == null || realmAccess.isEmpty()) {
+            return List.of();
+        }
+        if (!(realmAccess.get("roles") instanceof Collection<?> roles) || roles.isEmpty()) {
+            return List.of();
+        }
+        Set<?> roleSet = roles.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+        if (roleSet.isEmpty()) {
+            return List.of();
+        }
+        return authorities.get(roleSet, RealmRoleAuthoritiesConverter::toAuthorities);
+    }
+
+    private static List<GrantedAuthority> toAuthorities(Collection<?> roles) {
+        return roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(ROLE_PREFIX + role))
+                .toList();
+    }
+}
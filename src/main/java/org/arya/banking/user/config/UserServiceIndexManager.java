@@ -0,0 +1,235 @@
+package org.arya.banking.user.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.arya.banking.common.model.RegistrationProgress;
+import org.arya.banking.common.model.SecurityDetails;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.constants.ProvisioningStatus;
+import org.arya.banking.user.outbox.KeyCloakProvisioningTask;
+import org.arya.banking.user.outbox.UserAvroOutboxEvent;
+import org.arya.banking.user.outbox.UserOutboxEvent;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.arya.banking.common.model.OutboxStatus.PENDING;
+import static org.arya.banking.user.outbox.UserOutboxEvent.ARCHIVE_COLLECTION;
+import static org.arya.banking.user.outbox.UserOutboxEvent.OUTBOX_STATUS;
+import static org.arya.banking.user.outbox.UserOutboxEvent.PUBLISHED_STATUSES;
+import static org.arya.banking.user.outbox.UserOutboxEvent.UNPUBLISHED_STATUSES;
+
+/**
+ * Declares the indexes the repository queries of this service rely on and verifies that they are used.
+ * <p>
+ * On startup every required index is created if missing, then every repository query is explained and its
+ * winning plan checked for a collection scan. Depending on {@code arya.user.mongo-indexes.verification}
+ * a missing index or a collection scan fails startup ({@code fail}), is logged ({@code warn}), or the
+ * verification is skipped entirely ({@code off}).
+ * </p>
+ * <p>
+ * Every index that could not be created, typically a unique index over documents that already hold duplicates,
+ * is reported as {@code arya.user.mongo.index.missing} tagged with the index name, so running in {@code warn}
+ * mode without it does not go unnoticed.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserServiceIndexManager {
+
+    private static final String COLLSCAN = "COLLSCAN";
+    private static final String EXPLAIN_VALUE = "__explain__";
+    private static final String CLAIM_TOKEN = "claimToken";
+    private static final String CLAIMED_UNTIL = "claimedUntil";
+    private static final String LEGACY_USER_OUTBOX_STATUS_INDEX = "user_outbox_status_idx";
+    private static final String LEGACY_USER_OUTBOX_UNPUBLISHED_INDEX = "user_outbox_unpublished_idx";
+    private static final String LEGACY_USER_OUTBOX_AVRO_PENDING_INDEX = "user_outbox_avro_pending_idx";
+    private static final String LEGACY_REGISTRATION_PROGRESS_SUB_STATUS_INDEX = "registration_progress_user_sub_status_idx";
+    private static final String LEGACY_REGISTRATION_PROGRESS_STATUS_INDEX = "registration_progress_user_status_idx";
+
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${arya.user.mongo-indexes.verification:warn}")
+    private String verification;
+
+    @Value("${arya.user.outbox.retention.archive-ttl:P30D}")
+    private Duration archiveTtl;
+
+    @PostConstruct
+    public void init() {
+        if ("off".equalsIgnoreCase(verification)) {
+            log.info("Mongo index verification is disabled");
+            return;
+        }
+        List<String> problems = new ArrayList<>();
+        createIndexes(problems);
+        explainQueries(problems);
+
+        if (problems.isEmpty()) {
+            log.info("Mongo indexes verified");
+        } else if ("fail".equalsIgnoreCase(verification)) {
+            throw new IllegalStateException("Mongo index verification failed: " + problems);
+        } else {
+            problems.forEach(problem -> log.warn("Mongo index verification: {}", problem));
+        }
+    }
+
+    private void createIndexes(List<String> problems) {
+        ensureIndex(problems, User.class, new Index().on("userId", Sort.Direction.ASC).unique().named("user_id_uq"));
+        ensureIndex(problems, User.class, new Index().on("emailId", Sort.Direction.ASC).unique().named("user_email_uq"));
+        ensureIndex(problems, User.class, new Index().on("primaryContactNumber", Sort.Direction.ASC).unique().named("user_primary_contact_uq"));
+
+        dropIndex(problems, mongoTemplate.indexOps(RegistrationProgress.class), LEGACY_REGISTRATION_PROGRESS_SUB_STATUS_INDEX);
+        dropIndex(problems, mongoTemplate.indexOps(RegistrationProgress.class), LEGACY_REGISTRATION_PROGRESS_STATUS_INDEX);
+        ensureIndex(problems, RegistrationProgress.class, new Index().on("userId", Sort.Direction.ASC)
+                .on("subStatus", Sort.Direction.ASC).unique().named("registration_progress_user_sub_status_uq"));
+
+        ensureIndex(problems, SecurityDetails.class, new Index().on("userId", Sort.Direction.ASC).unique().named("security_details_user_id_uq"));
+
+        dropIndex(problems, mongoTemplate.indexOps(UserOutboxEvent.class), LEGACY_USER_OUTBOX_STATUS_INDEX);
+        dropIndex(problems, mongoTemplate.indexOps(UserOutboxEvent.class), LEGACY_USER_OUTBOX_UNPUBLISHED_INDEX);
+        ensureIndex(problems, UserOutboxEvent.class, new Index().on(OUTBOX_STATUS, Sort.Direction.ASC).on(CLAIMED_UNTIL, Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where(OUTBOX_STATUS).in(UNPUBLISHED_STATUSES))).named("user_outbox_unpublished_claim_idx"));
+        ensureIndex(problems, UserOutboxEvent.class, new Index().on(OUTBOX_STATUS, Sort.Direction.ASC).on("id", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where(OUTBOX_STATUS).in(PUBLISHED_STATUSES))).named("user_outbox_published_idx"));
+        ensureIndex(problems, UserOutboxEvent.class, new Index().on("aggregateId", Sort.Direction.ASC)
+                .partial(PartialIndexFilter.of(Criteria.where(OUTBOX_STATUS).is(PENDING.name()))).named("user_outbox_pending_aggregate_idx"));
+        ensureIndex(problems, mongoTemplate.indexOps(ARCHIVE_COLLECTION), new Index().on("archivedAt", Sort.Direction.ASC)
+                .expire(archiveTtl).named("user_outbox_archive_ttl_idx"));
+        dropIndex(problems, mongoTemplate.indexOps(UserAvroOutboxEvent.class), LEGACY_USER_OUTBOX_AVRO_PENDING_INDEX);
+        ensureIndex(problems, UserAvroOutboxEvent.class, new Index().on(CLAIM_TOKEN, Sort.Direction.ASC).sparse()
+                .named("user_outbox_avro_claim_token_idx"));
+        ensureIndex(problems, UserAvroOutboxEvent.class, new Index().on(CLAIMED_UNTIL, Sort.Direction.ASC).on("id", Sort.Direction.ASC)
+                .named("user_outbox_avro_claimed_until_idx"));
+        ensureIndex(problems, UserAvroOutboxEvent.class, new Index().on("aggregateId", Sort.Direction.ASC).on("id", Sort.Direction.ASC)
+                .named("user_outbox_avro_aggregate_idx"));
+
+        ensureIndex(problems, KeyCloakProvisioningTask.class, new Index().on("status", Sort.Direction.ASC)
+                .on("nextAttemptAt", Sort.Direction.ASC).named("keycloak_provisioning_due_idx"));
+    }
+
+    private void ensureIndex(List<String> problems, Class<?> entityClass, IndexDefinition index) {
+        ensureIndex(problems, mongoTemplate.indexOps(entityClass), index);
+    }
+
+    private void ensureIndex(List<String> problems, IndexOperations indexOperations, IndexDefinition index) {
+        try {
+            indexOperations.ensureIndex(index);
+        } catch (RuntimeException e) {
+            Object name = index.getIndexOptions().get("name");
+            problems.add(String.format("could not create index %s: %s", name, e.getMessage()));
+            Gauge.builder("arya.user.mongo.index.missing", () -> 1)
+                    .description("Indexes required by the service that could not be created")
+                    .tag("index", String.valueOf(name))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Drops an index superseded by a narrower one, so writes stop maintaining both.
+     */
+    private void dropIndex(List<String> problems, IndexOperations indexOperations, String name) {
+        try {
+            if (indexOperations.getIndexInfo().stream().anyMatch(indexInfo -> name.equals(indexInfo.getName()))) {
+                indexOperations.dropIndex(name);
+                log.info("Dropped superseded index {}", name);
+            }
+        } catch (RuntimeException e) {
+            problems.add(String.format("could not drop index %s: %s", name, e.getMessage()));
+        }
+    }
+
+    private void explainQueries(List<String> problems) {
+        explain(problems, "UserRepository.findByEmailIdOrPrimaryContactNumber", User.class,
+                new Document("$or", List.of(new Document("emailId", EXPLAIN_VALUE), new Document("primaryContactNumber", EXPLAIN_VALUE))));
+        explain(problems, "UserRepository.findByEmailIdInOrPrimaryContactNumberIn", User.class,
+                new Document("$or", List.of(new Document("emailId", new Document("$in", List.of(EXPLAIN_VALUE))),
+                        new Document("primaryContactNumber", new Document("$in", List.of(EXPLAIN_VALUE))))));
+        explain(problems, "UserRepository.findSnapshotByUserId", User.class, new Document("userId", EXPLAIN_VALUE));
+        explain(problems, "UserRepository.findSnapshotsByUserIdIn", User.class,
+                new Document("userId", new Document("$in", List.of(EXPLAIN_VALUE))));
+        explain(problems, "RegistrationProgressRepository.findByUserId", RegistrationProgress.class, new Document("userId", EXPLAIN_VALUE));
+        explain(problems, "RegistrationProgressRepository.insertIfAbsent", RegistrationProgress.class,
+                new Document("userId", EXPLAIN_VALUE).append("subStatus", EXPLAIN_VALUE));
+        explain(problems, "SecurityDetailsRepository.findByUserId", SecurityDetails.class, new Document("userId", EXPLAIN_VALUE));
+        explain(problems, "user_outbox pending scan", UserOutboxEvent.class, new Document(OUTBOX_STATUS, PENDING.name()));
+        explain(problems, "UserOutboxEventRepository.claim read-back", UserOutboxEvent.class,
+                new Document("_id", new Document("$in", List.of(new ObjectId()))).append(CLAIM_TOKEN, EXPLAIN_VALUE));
+        explain(problems, "UserOutboxEventRepository.upsertPending", UserOutboxEvent.class,
+                new Document("aggregateId", EXPLAIN_VALUE).append(OUTBOX_STATUS, PENDING.name()).append("eventType", EXPLAIN_VALUE));
+        explain(problems, "UserAvroOutboxEventRepository.upsertPending", UserAvroOutboxEvent.class,
+                new Document("aggregateId", EXPLAIN_VALUE).append("eventType", EXPLAIN_VALUE)
+                        .append(CLAIM_TOKEN, new Document("$exists", false)));
+        explain(problems, "user_outbox compaction", UserOutboxEvent.class,
+                new Document(OUTBOX_STATUS, new Document("$in", PUBLISHED_STATUSES)));
+        explain(problems, "UserAvroOutboxEventRepository.claimPending", UserAvroOutboxEvent.class,
+                new Document("$or", List.of(new Document(CLAIMED_UNTIL, new Document("$exists", false)),
+                        new Document(CLAIMED_UNTIL, new Document("$lt", new Date())))),
+                new Document("_id", 1));
+        explain(problems, "UserAvroOutboxEventRepository.claim", UserAvroOutboxEvent.class,
+                new Document("_id", new Document("$in", List.of(new ObjectId()))));
+        explain(problems, "UserAvroOutboxEventRepository.claim read-back", UserAvroOutboxEvent.class,
+                new Document(CLAIM_TOKEN, EXPLAIN_VALUE), new Document("_id", 1));
+        explain(problems, "UserAvroOutboxEventRepository.findOldestOutstandingIds", UserAvroOutboxEvent.class,
+                new Document("aggregateId", new Document("$in", List.of(EXPLAIN_VALUE)))
+                        .append("_id", new Document("$nin", List.of(new ObjectId()))));
+        explain(problems, "KeyCloakProvisioningTaskRepository.findByStatusAndNextAttemptAtLessThanEqual", KeyCloakProvisioningTask.class,
+                new Document("status", ProvisioningStatus.PENDING.name()).append("nextAttemptAt", new Document("$lte", new Date())));
+    }
+
+    private void explain(List<String> problems, String queryName, Class<?> entityClass, Document filter) {
+        explain(problems, queryName, entityClass, filter, null);
+    }
+
+    private void explain(List<String> problems, String queryName, Class<?> entityClass, Document filter, Document sort) {
+        try {
+            Document find = new Document("find", mongoTemplate.getCollectionName(entityClass)).append("filter", filter);
+            if (null != sort) {
+                find.append("sort", sort);
+            }
+            Document explain = mongoTemplate.getDb().runCommand(new Document("explain", find)
+                    .append("verbosity", "queryPlanner"));
+            Object queryPlanner = explain.get("queryPlanner");
+            if (containsStage(queryPlanner instanceof Document planner ? planner.get("winningPlan") : null, COLLSCAN)) {
+                problems.add(String.format("%s falls back to a %s", queryName, COLLSCAN));
+            }
+        } catch (RuntimeException e) {
+            problems.add(String.format("could not explain %s: %s", queryName, e.getMessage()));
+        }
+    }
+
+    /**
+     * Searches an explain plan tree for the given stage, whatever the nesting used by the server version.
+     */
+    private static boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Map<?, ?> node) {
+            if (stage.equals(node.get("stage"))) {
+                return true;
+            }
+            return node.values().stream().anyMatch(child -> containsStage(child, stage));
+        }
+        if (plan instanceof List<?> children) {
+            return children.stream().anyMatch(child -> containsStage(child, stage));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,6 @@
+package org.arya.banking.user.constants;
+
+public enum OutboxPayloadFormat {
+    JSON,
+    AVRO
+}
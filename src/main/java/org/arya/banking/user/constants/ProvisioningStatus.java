@@ -0,0 +1,7 @@
+package org.arya.banking.user.constants;
+
+public enum ProvisioningStatus {
+    PENDING,
+    FAILED,
+    PASSWORD_RESET_REQUIRED
+}
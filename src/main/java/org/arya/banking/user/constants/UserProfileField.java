@@ -0,0 +1,70 @@
+package org.arya.banking.user.constants;
+
+import org.arya.banking.common.model.User;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Fields of a user profile a caller can ask for, with the document field backing each of them.
+ */
+public enum UserProfileField {
+
+    USER_ID("userId", User::getUserId),
+    FIRST_NAME("firstName", User::getFirstName),
+    LAST_NAME("lastName", User::getLastName),
+    EMAIL_ID("emailId", User::getEmailId),
+    PRIMARY_CONTACT_NUMBER("primaryContactNumber", User::getPrimaryContactNumber),
+    CONTACT_NUMBERS("contactNumbers", User::getContactNumbers),
+    ADDRESSES("addresss", User::getAddresss),
+    STATUS("status", User::getStatus);
+
+    /**
+     * Pattern matching exactly the field names of all fields, for validating requested field names.
+     */
+    public static final String FIELD_NAMES = "userId|firstName|lastName|emailId|primaryContactNumber|contactNumbers|addresss|status";
+
+    /**
+     * The small, frequently requested field set kept in the user summary cache.
+     */
+    public static final Set<UserProfileField> SUMMARY = Collections.unmodifiableSet(EnumSet.of(USER_ID, FIRST_NAME, LAST_NAME, STATUS));
+
+    private final String fieldName;
+    private final Function<User, Object> getter;
+
+    UserProfileField(String fieldName, Function<User, Object> getter) {
+        this.fieldName = fieldName;
+        this.getter = getter;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public static Optional<UserProfileField> fromFieldName(String fieldName) {
+        return Arrays.stream(values()).filter(field -> field.fieldName.equals(fieldName)).findFirst();
+    }
+
+    /**
+     * Copies the requested fields of the user into a map keyed by field name, in declaration order.
+     *
+     * @param user the full or projected user
+     * @param fields the requested fields
+     * @return the requested fields and their values
+     */
+    public static Map<String, Object> select(User user, Set<UserProfileField> fields) {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        for (UserProfileField field : values()) {
+            if (fields.contains(field)) {
+                selected.put(field.fieldName, field.getter.apply(user));
+            }
+        }
+        return selected;
+    }
+}
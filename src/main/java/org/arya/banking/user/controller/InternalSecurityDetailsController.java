@@ -5,17 +5,23 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.arya.banking.user.dto.LoginAttemptDto;
 import org.arya.banking.user.dto.UpdateSecurityDetailsDto;
 import org.arya.banking.user.service.SecurityDetailsService;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping("/internal/api/security-details")
 @RequiredArgsConstructor
 @Tag(name = "Internal Security", description = "Internal service-to-service endpoints for security credential updates (login attempt tracking)")
@@ -36,4 +42,16 @@ public class InternalSecurityDetailsController {
         UpdateSecurityDetailsDto updateSecurityDetailsDto = new UpdateSecurityDetailsDto(null, loginFailed);
         return ResponseEntity.ok(securityDetailsService.updateSecurityCredentials(userId, updateSecurityDetailsDto));
     }
+
+    @PostMapping("/login-attempts")
+    @Operation(summary = "Track login attempts in bulk", description = "Internally records many login attempts at once. Attempts are coalesced per user and applied with a single bulk write; the response holds one entry per user with the same lockout decision as the single-attempt endpoint.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Login attempts recorded"),
+            @ApiResponse(responseCode = "400", description = "Validation failed")
+    })
+    public ResponseEntity<List<Map<String, String>>> updateLoginAttemptsInBulk(
+            @Valid @RequestBody @NotEmpty List<@Valid LoginAttemptDto> loginAttempts) {
+        log.info("Received {} login attempt events", loginAttempts.size());
+        return ResponseEntity.ok(securityDetailsService.updateLoginAttempts(loginAttempts));
+    }
 }
@@ -0,0 +1,38 @@
+package org.arya.banking.user.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.arya.banking.user.service.UserImportService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/internal/api/users")
+@RequiredArgsConstructor
+@Tag(name = "Internal Users", description = "Internal service-to-service endpoints for bulk user administration")
+public class InternalUserController {
+
+    private final UserImportService userImportService;
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import users in bulk", description = "Registers many users from an NDJSON stream with one registration request per line, validated with the same rules as single registration. The response streams one NDJSON result per record with its line number and outcome (CREATED, DUPLICATE, INVALID or FAILED). Keycloak users are created in the background. Requires the INTERNAL_SERVICE role.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Import processed; see the per-record results"),
+            @ApiResponse(responseCode = "401", description = "Missing or invalid bearer token"),
+            @ApiResponse(responseCode = "403", description = "Caller lacks the INTERNAL_SERVICE role")
+    })
+    public ResponseEntity<StreamingResponseBody> importUsers(HttpServletRequest request) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(results -> userImportService.importUsers(request.getInputStream(), results));
+    }
+}
@@ -7,18 +7,26 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.arya.banking.common.dto.UserResponse;
-import org.arya.banking.common.model.User;
 import org.arya.banking.user.dto.RegisterDto;
+import org.arya.banking.user.dto.UserBatchRequest;
+import org.arya.banking.user.dto.UserBatchResponse;
+import org.arya.banking.user.dto.UserFieldsRequest;
 import org.arya.banking.user.dto.UserUpdateDto;
+import org.arya.banking.user.repository.UserSnapshot;
 import org.arya.banking.user.service.UserService;
+import org.arya.banking.user.util.UserETagGenerator;
 import org.springframework.web.bind.annotation.*;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
 
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 @Tag(name = "Users", description = "User management endpoints for registration, retrieval, and profile updates")
@@ -37,27 +45,51 @@ public class UserController {
     }
 
     @GetMapping("/{userId}")
-    @Operation(summary = "Get user by ID", description = "Retrieves the full user profile including contact numbers, addresses, and account status.")
+    @Operation(summary = "Get user by ID", description = "Retrieves the full user profile including contact numbers, addresses, and account status, with an ETag; a matching If-None-Match returns 304 without a body. With the fields parameter only the listed fields are read and returned.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User found"),
+            @ApiResponse(responseCode = "304", description = "User not modified since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Unknown field requested"),
             @ApiResponse(responseCode = "404", description = "User not found")
     })
-    public ResponseEntity<User> getUserById(
-            @Parameter(description = "Unique user identifier") @PathVariable String userId) {
-        return ResponseEntity.ok().body(userService.getUserById(userId));
+    public ResponseEntity<Object> getUserById(
+            @Parameter(description = "Unique user identifier") @PathVariable String userId,
+            @Valid UserFieldsRequest userFieldsRequest,
+            WebRequest webRequest) {
+        if (userFieldsRequest.isEmpty()) {
+            UserSnapshot user = userService.getUserSnapshot(userId);
+            String eTag = UserETagGenerator.generate(user.version());
+            if (webRequest.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok().eTag(eTag).body(user.user());
+        }
+        return ResponseEntity.ok().body(userService.getUserFields(userId, userFieldsRequest.profileFields()));
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Get users by IDs", description = "Retrieves the profiles of up to 1000 users in one call. Unknown user IDs do not fail the request and are listed as missing.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lookup processed; found users and missing IDs"),
+            @ApiResponse(responseCode = "400", description = "Validation failed")
+    })
+    public ResponseEntity<UserBatchResponse> getUsersByIds(@Valid @RequestBody UserBatchRequest userBatchRequest) {
+        return ResponseEntity.ok(userService.getUsersByIds(userBatchRequest.userIds()));
     }
 
     @PutMapping("/{userId}")
-    @Operation(summary = "Update user details", description = "Updates user profile information including contact details, address, and lock status.")
+    @Operation(summary = "Update user details", description = "Updates user profile information including contact details, address, and lock status. With If-Match the update only applies if the profile still has one of the given ETags.")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User updated successfully"),
             @ApiResponse(responseCode = "400", description = "Validation failed"),
-            @ApiResponse(responseCode = "404", description = "User not found")
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "412", description = "User was modified since the ETag in If-Match")
     })
     public ResponseEntity<UserResponse> updateUser(
             @Parameter(description = "Unique user identifier") @PathVariable String userId,
+            @Parameter(description = "ETag of the profile the update is based on") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UserUpdateDto userUpdateDto) {
-        return ResponseEntity.ok(userService.updateUser(userId, userUpdateDto));
+        return ResponseEntity.ok(userService.updateUser(userId, userUpdateDto, ifMatch));
     }
 
 }
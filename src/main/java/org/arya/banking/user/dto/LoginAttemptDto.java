@@ -0,0 +1,15 @@
+package org.arya.banking.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "A single login attempt reported by the auth-service")
+public record LoginAttemptDto(
+
+        @Schema(description = "Unique user identifier", example = "ARYA1A2B3C")
+        @NotBlank(message = "User id must be present")
+        String userId,
+
+        @Schema(description = "Whether the login attempt failed", example = "true")
+        boolean loginFailed) {
+}
@@ -0,0 +1,17 @@
+package org.arya.banking.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Request payload for looking up many users at once")
+public record UserBatchRequest(
+
+        @Schema(description = "Unique user identifiers, at most 1000", example = "[\"ARYA1A2B3C\", \"ARYA4D5E6F\"]")
+        @NotEmpty(message = "User ids must be present")
+        @Size(max = 1000, message = "At most 1000 user ids can be looked up at once")
+        List<@NotBlank(message = "User id must not be blank") String> userIds) {
+}
@@ -0,0 +1,16 @@
+package org.arya.banking.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.arya.banking.common.model.User;
+
+import java.util.List;
+
+@Schema(description = "Result of a batch user lookup")
+public record UserBatchResponse(
+
+        @Schema(description = "Users found, in request order")
+        List<User> users,
+
+        @Schema(description = "Requested user identifiers that do not exist", example = "[\"ARYA4D5E6F\"]")
+        List<String> missingUserIds) {
+}
@@ -0,0 +1,30 @@
+package org.arya.banking.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Pattern;
+import org.arya.banking.user.constants.UserProfileField;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+@Schema(description = "Query parameters selecting the fields of a user profile to return")
+public record UserFieldsRequest(
+
+        @Schema(description = "Comma separated fields to return: userId, firstName, lastName, emailId, primaryContactNumber, contactNumbers, addresss, status", example = "firstName,lastName")
+        Set<@Pattern(regexp = UserProfileField.FIELD_NAMES, message = "Unknown field requested") String> fields) {
+
+    public boolean isEmpty() {
+        return null == fields || fields.isEmpty();
+    }
+
+    /**
+     * Returns the requested fields; only valid once the field names passed validation.
+     *
+     * @return the requested fields
+     */
+    public Set<UserProfileField> profileFields() {
+        Set<UserProfileField> profileFields = EnumSet.noneOf(UserProfileField.class);
+        fields.forEach(field -> UserProfileField.fromFieldName(field).ifPresent(profileFields::add));
+        return profileFields;
+    }
+}
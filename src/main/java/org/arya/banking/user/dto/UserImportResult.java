@@ -0,0 +1,34 @@
+package org.arya.banking.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of importing a single NDJSON record")
+public record UserImportResult(
+
+        @Schema(description = "Line number of the record in the import stream, starting at 1", example = "42")
+        long line,
+
+        @Schema(description = "Outcome of the record", example = "CREATED")
+        Status status,
+
+        @Schema(description = "Unique user identifier of the created user", example = "ARYA1A2B3C")
+        String userId,
+
+        @Schema(description = "Why the record was not imported", example = "User already exists")
+        String message) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    public static UserImportResult created(long line, String userId) {
+        return new UserImportResult(line, Status.CREATED, userId, null);
+    }
+
+    public static UserImportResult rejected(long line, Status status, String message) {
+        return new UserImportResult(line, status, null, message);
+    }
+}
@@ -0,0 +1,20 @@
+package org.arya.banking.user.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a conditional update is refused because the user was modified since the version named in
+ * {@code If-Match}.
+ */
+@Getter
+public class UserModifiedException extends RuntimeException {
+
+    private final int errorCode;
+    private final String exceptionCode;
+
+    public UserModifiedException(int errorCode, String exceptionCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+        this.exceptionCode = exceptionCode;
+    }
+}
@@ -0,0 +1,14 @@
+package org.arya.banking.user.exception;
+
+/**
+ * Error and exception codes of the user service exceptions, named like those of the common library.
+ */
+public final class UserServiceExceptionConstants {
+
+    public static final int PRECONDITION_FAILED_ERROR_CODE = 412;
+
+    public static final String USER_MODIFIED_412 = "USER_MODIFIED_412";
+
+    private UserServiceExceptionConstants() {
+    }
+}
@@ -0,0 +1,22 @@
+package org.arya.banking.user.exception;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+import static org.arya.banking.common.constants.ResponseKeys.RESPONSE;
+import static org.arya.banking.common.constants.ResponseKeys.RESPONSE_CODE;
+
+/**
+ * Turns the user service exceptions into error responses on both the servlet and the reactive stack.
+ */
+@RestControllerAdvice
+public class UserServiceExceptionHandler {
+
+    @ExceptionHandler(UserModifiedException.class)
+    public ResponseEntity<Map<String, String>> handleUserModified(UserModifiedException e) {
+        return ResponseEntity.status(e.getErrorCode()).body(Map.of(RESPONSE_CODE, e.getExceptionCode(), RESPONSE, e.getMessage()));
+    }
+}
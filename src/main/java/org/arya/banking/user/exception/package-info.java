@@ -0,0 +1,8 @@
+/**
+ * Provides the exceptions of the user service that have no counterpart in the Arya Banking common library.
+ * <p>
+ * They carry an HTTP error code and an exception code like the common exceptions, and are turned into error
+ * responses by {@link org.arya.banking.user.exception.UserServiceExceptionHandler}.
+ * </p>
+ */
+package org.arya.banking.user.exception;
@@ -3,12 +3,14 @@ package org.arya.banking.user.external;
 import org.arya.banking.common.config.FeignConfiguration;
 import org.arya.banking.common.dto.KeyCloakResponse;
 import org.arya.banking.common.model.KeyCloakUser;
+import org.arya.banking.user.config.KeyCloakFeignConfig;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
-@FeignClient(name = "ARYA-BANKING-AUTH-SERVICE", configuration = FeignConfiguration.class)
+@FeignClient(name = "ARYA-BANKING-AUTH-SERVICE", url = "${arya.user.keycloak.service-url:}",
+        configuration = {FeignConfiguration.class, KeyCloakFeignConfig.class})
 public interface KeyCloakService {
 
     @PostMapping("/internal/api/auth/register/users")
@@ -0,0 +1,122 @@
+package org.arya.banking.user.listener;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.arya.banking.user.dto.LoginAttemptDto;
+import org.arya.banking.user.service.SecurityDetailsService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.arya.banking.common.constants.ResponseKeys.DISABLE_USER;
+import static org.arya.banking.common.constants.ResponseKeys.RESPONSE_CODE;
+import static org.arya.banking.common.constants.ResponseKeys.USER_ID;
+import static org.arya.banking.user.config.LoginEventKafkaConfig.LOGIN_EVENT_CONTAINER_FACTORY;
+import static org.arya.banking.user.service.SecurityDetailsService.ACCOUNT_LOCK_FAILED_500;
+
+/**
+ * Consumes login-attempt events published by the auth-service.
+ * <p>
+ * The auth-service keys every event by userId, so all attempts of one user land on the same partition and
+ * are consumed in order by the same container thread. Each poll is split by partition and every slice is handed
+ * to {@link SecurityDetailsService#updateLoginAttempts(List, String, Map)} as one batch, which coalesces the
+ * attempts per user and applies each user's increment at most once per offset. A redelivered slice therefore
+ * does not count the same failure twice.
+ * </p>
+ * <p>
+ * When a slice fails, or an account it should lock could not be locked, a {@link BatchListenerFailedException}
+ * points the error handler at its first record, so the slices before it are committed and only the failed one and
+ * those after it are retried. The redelivered slice counts nothing twice but retries the lock.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "arya.user.login-events.enabled", havingValue = "true")
+public class LoginFailureEventListener {
+
+    private static final String PARTITION_SOURCE_PREFIX = "partition-";
+
+    private final SecurityDetailsService securityDetailsService;
+    private final Gson gson;
+
+    @KafkaListener(topics = "${arya.user.login-events.topic}",
+            groupId = "${arya.user.login-events.group-id}",
+            containerFactory = LOGIN_EVENT_CONTAINER_FACTORY)
+    public void onLoginAttempts(List<ConsumerRecord<String, String>> records) {
+
+        int sliceStart = 0;
+        while (sliceStart < records.size()) {
+            int partition = records.get(sliceStart).partition();
+            int sliceEnd = sliceStart;
+            while (sliceEnd < records.size() && records.get(sliceEnd).partition() == partition) {
+                sliceEnd++;
+            }
+            try {
+                onPartitionSlice(partition, records.subList(sliceStart, sliceEnd));
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException("Failed to apply login attempts of partition " + partition, e, sliceStart);
+            }
+            sliceStart = sliceEnd;
+        }
+    }
+
+    private void onPartitionSlice(int partition, List<ConsumerRecord<String, String>> records) {
+
+        List<LoginAttemptDto> loginAttempts = new ArrayList<>(records.size());
+        Map<String, Long> offsetsByUserId = new HashMap<>();
+        for (ConsumerRecord<String, String> consumerRecord : records) {
+            LoginAttemptDto loginAttempt = toLoginAttempt(consumerRecord);
+            if (null != loginAttempt) {
+                loginAttempts.add(loginAttempt);
+                offsetsByUserId.put(loginAttempt.userId(), consumerRecord.offset());
+            }
+        }
+        if (loginAttempts.isEmpty()) {
+            return;
+        }
+
+        List<Map<String, String>> responses = securityDetailsService.updateLoginAttempts(loginAttempts,
+                PARTITION_SOURCE_PREFIX + partition, offsetsByUserId);
+        responses.stream()
+                .filter(response -> response.containsKey(DISABLE_USER))
+                .forEach(response -> log.info("User: {} is disabled after failed login attempts", response.get(USER_ID)));
+        if (responses.stream().anyMatch(response -> ACCOUNT_LOCK_FAILED_500.equals(response.get(RESPONSE_CODE)))) {
+            throw new IllegalStateException("Failed to lock accounts of partition " + partition);
+        }
+        log.debug("Processed {} login attempt events for {} users from partition {}", loginAttempts.size(), responses.size(), partition);
+    }
+
+    /**
+     * Parses a login-attempt event, falling back to the record key when the payload carries no userId.
+     *
+     * @param consumerRecord the consumed record
+     * @return the parsed login attempt, or null if the record is malformed and must be skipped
+     */
+    private LoginAttemptDto toLoginAttempt(ConsumerRecord<String, String> consumerRecord) {
+        try {
+            LoginAttemptDto loginAttempt = gson.fromJson(consumerRecord.value(), LoginAttemptDto.class);
+            if (null == loginAttempt) {
+                return null;
+            }
+            String userId = null != loginAttempt.userId() ? loginAttempt.userId() : consumerRecord.key();
+            if (null == userId || userId.isBlank()) {
+                log.warn("Skipping login attempt event without userId at offset: {}", consumerRecord.offset());
+                return null;
+            }
+            return new LoginAttemptDto(userId, loginAttempt.loginFailed());
+        } catch (JsonParseException e) {
+            log.warn("Skipping malformed login attempt event at offset: {}", consumerRecord.offset(), e);
+            return null;
+        }
+    }
+}
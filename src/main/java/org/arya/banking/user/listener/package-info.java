@@ -0,0 +1,8 @@
+/**
+ * Provides Kafka listeners consuming events published by other Arya Banking services.
+ * <p>
+ * This package contains consumers that feed externally produced events, such as login attempts reported by the
+ * auth-service, into the same service logic used by the internal REST endpoints.
+ * </p>
+ */
+package org.arya.banking.user.listener;
@@ -0,0 +1,41 @@
+package org.arya.banking.user.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.arya.banking.user.constants.ProvisioningStatus;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Durable request to create a registered user in Keycloak.
+ * <p>
+ * Written next to the user document during registration and deleted once the auth-service has created the
+ * Keycloak user. The password is only ever stored encrypted and disappears with the task, or once a failed
+ * task outlives the configured password retention; the task is then kept as
+ * {@link ProvisioningStatus#PASSWORD_RESET_REQUIRED} to record that the user has to reset the password.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "keycloak_provisioning")
+public class KeyCloakProvisioningTask {
+
+    @Id
+    private String id;
+    private String userId;
+    private String firstName;
+    private String lastName;
+    private String emailId;
+    private String encryptedPassword;
+    private ProvisioningStatus status;
+    private int retryCount;
+    private Instant nextAttemptAt;
+    private String lastError;
+    private Instant createdAt;
+}
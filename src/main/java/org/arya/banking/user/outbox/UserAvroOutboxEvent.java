@@ -0,0 +1,42 @@
+package org.arya.banking.user.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Outbox event carrying an Avro binary encoded {@code UserCreateEvent}.
+ * <p>
+ * The payload is stored as a BSON binary field and sent to Kafka byte for byte, together with the fingerprint
+ * of the writer schema. These events live in their own collection and are published by
+ * {@link UserAvroOutboxRelay}, not by the JSON outbox publisher. An event is claimed by the instance publishing
+ * it through {@code claimToken} and {@code claimedUntil}; events that exhaust their retries are moved to
+ * {@value #DEAD_LETTER_COLLECTION}.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "user_outbox_avro")
+public class UserAvroOutboxEvent {
+
+    public static final String DEAD_LETTER_COLLECTION = "user_outbox_avro_dead";
+
+    @Id
+    private String id;
+    private String aggregateId;
+    private String eventType;
+    private String topic;
+    private byte[] payload;
+    private long schemaFingerprint;
+    private int retryCount;
+    private Instant createdAt;
+    private String claimToken;
+    private Instant claimedUntil;
+}
@@ -0,0 +1,214 @@
+package org.arya.banking.user.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.arya.banking.user.repository.UserAvroOutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes Avro binary outbox events from {@code user_outbox_avro} to Kafka.
+ * <p>
+ * Payloads are sent exactly as stored, with a {@link ByteArraySerializer} and the writer schema fingerprint
+ * in the {@value #SCHEMA_FINGERPRINT_HEADER} header. Every event is claimed in Mongo before it is sent, so the
+ * scheduled sweep and the event-driven dispatcher of all instances never send the same event concurrently.
+ * </p>
+ * <p>
+ * Events of one user are sent strictly in ID order: a user's next event is only sent once the previous one is
+ * acknowledged, a failed send holds back the rest of that user's events until the next run, and a user whose
+ * older event is still outstanding elsewhere is skipped. Events are deleted once acknowledged; failed sends are
+ * retried on later runs until {@code arya.outbox.max-retries} is reached, after which the event is moved to
+ * {@value UserAvroOutboxEvent#DEAD_LETTER_COLLECTION} and counted as {@code arya.user.outbox.dead-lettered}.
+ * The time from writing an event to its acknowledgement is published as the {@code arya.user.outbox.publish.lag}
+ * timer.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "arya.user.outbox.payload-format", havingValue = "AVRO")
+public class UserAvroOutboxRelay {
+
+    public static final String SCHEMA_FINGERPRINT_HEADER = "arya-schema-fingerprint";
+
+    private final UserAvroOutboxEventRepository userAvroOutboxEventRepository;
+    private final DefaultKafkaProducerFactory<String, byte[]> producerFactory;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final Timer publishLag;
+    private final Counter deadLettered;
+
+    @Value("${arya.outbox.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${arya.user.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${arya.user.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${arya.user.outbox.claim-lease:PT1M}")
+    private Duration claimLease;
+
+    public UserAvroOutboxRelay(UserAvroOutboxEventRepository userAvroOutboxEventRepository,
+                               ProducerFactory<String, Object> outboxProducerFactory,
+                               MeterRegistry meterRegistry) {
+        this.userAvroOutboxEventRepository = userAvroOutboxEventRepository;
+        this.publishLag = UserOutboxDispatcher.publishLagTimer(meterRegistry, "avro");
+        this.deadLettered = UserOutboxDispatcher.deadLetteredCounter(meterRegistry, "avro");
+        Map<String, Object> producerProperties = new HashMap<>(outboxProducerFactory.getConfigurationProperties());
+        producerProperties.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProperties.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        this.producerFactory = new DefaultKafkaProducerFactory<>(producerProperties);
+        this.kafkaTemplate = new KafkaTemplate<>(producerFactory);
+    }
+
+    @Scheduled(fixedDelayString = "${arya.outbox.publish-interval-ms:10000}")
+    public void publishPendingEvents() {
+        List<UserAvroOutboxEvent> events = userAvroOutboxEventRepository.claimPending(batchSize, Instant.now(), claimLease);
+        if (!events.isEmpty()) {
+            publishClaimed(events);
+        }
+    }
+
+    /**
+     * Claims and publishes events handed over right after they were written; events another instance already
+     * claimed are left to it.
+     *
+     * @param events the events to publish
+     */
+    public void publish(List<UserAvroOutboxEvent> events) {
+        List<UserAvroOutboxEvent> claimed = userAvroOutboxEventRepository.claim(
+                events.stream().map(UserAvroOutboxEvent::getId).toList(), Instant.now(), claimLease);
+        if (!claimed.isEmpty()) {
+            publishClaimed(claimed);
+        }
+    }
+
+    /**
+     * Sends claimed events, pipelined across users and chained per user, and waits for every acknowledgement.
+     *
+     * @param events the claimed events in ID order
+     */
+    private void publishClaimed(List<UserAvroOutboxEvent> events) {
+        List<UserAvroOutboxEvent> sendable = new ArrayList<>(events.size());
+        for (UserAvroOutboxEvent event : events) {
+            if (event.getRetryCount() >= maxRetries) {
+                userAvroOutboxEventRepository.deadLetter(event);
+                deadLettered.increment();
+                log.error("Outbox event: {} for user: {} failed {} times, moved to {}", event.getId(), event.getAggregateId(),
+                        event.getRetryCount(), UserAvroOutboxEvent.DEAD_LETTER_COLLECTION);
+            } else {
+                sendable.add(event);
+            }
+        }
+        List<UserAvroOutboxEvent> ready = holdBackOutOfOrder(sendable);
+
+        Map<String, CompletableFuture<SendResult<String, byte[]>>> lastSendByAggregate = new HashMap<>();
+        List<CompletableFuture<SendResult<String, byte[]>>> sends = new ArrayList<>(ready.size());
+        for (UserAvroOutboxEvent event : ready) {
+            CompletableFuture<SendResult<String, byte[]>> previous = lastSendByAggregate.get(event.getAggregateId());
+            CompletableFuture<SendResult<String, byte[]>> sendFuture = null == previous ? send(event) : previous.thenCompose(result -> send(event));
+            lastSendByAggregate.put(event.getAggregateId(), sendFuture);
+            sends.add(sendFuture);
+        }
+
+        List<String> published = new ArrayList<>(ready.size());
+        List<UserAvroOutboxEvent> notSent = new ArrayList<>();
+        Set<String> failedAggregates = new HashSet<>();
+        for (int i = 0; i < ready.size(); i++) {
+            UserAvroOutboxEvent event = ready.get(i);
+            if (failedAggregates.contains(event.getAggregateId())) {
+                sends.get(i).cancel(false);
+                notSent.add(event);
+                continue;
+            }
+            try {
+                sends.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                published.add(event.getId());
+                if (null != event.getCreatedAt()) {
+                    publishLag.record(Duration.between(event.getCreatedAt(), Instant.now()));
+                }
+            } catch (ExecutionException | TimeoutException e) {
+                failedAggregates.add(event.getAggregateId());
+                userAvroOutboxEventRepository.recordFailure(event);
+                log.warn("Failed to publish outbox event: {} for user: {}", event.getId(), event.getAggregateId(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        userAvroOutboxEventRepository.deleteAllById(published);
+        userAvroOutboxEventRepository.release(notSent);
+        log.debug("Published {} of {} Avro outbox events", published.size(), events.size());
+    }
+
+    /**
+     * Releases the events of users that still have an older event outstanding outside this batch, so a newer
+     * event never overtakes an older one.
+     *
+     * @param events the claimed events in ID order
+     * @return the events that can be sent now, in ID order
+     */
+    private List<UserAvroOutboxEvent> holdBackOutOfOrder(List<UserAvroOutboxEvent> events) {
+        if (events.isEmpty()) {
+            return events;
+        }
+        Map<String, String> oldestOutstandingIds = userAvroOutboxEventRepository.findOldestOutstandingIds(
+                events.stream().map(UserAvroOutboxEvent::getAggregateId).collect(Collectors.toSet()),
+                events.stream().map(UserAvroOutboxEvent::getId).toList());
+        if (oldestOutstandingIds.isEmpty()) {
+            return events;
+        }
+        List<UserAvroOutboxEvent> ready = new ArrayList<>(events.size());
+        List<UserAvroOutboxEvent> heldBack = new ArrayList<>();
+        for (UserAvroOutboxEvent event : events) {
+            String oldestOutstandingId = oldestOutstandingIds.get(event.getAggregateId());
+            if (null != oldestOutstandingId && oldestOutstandingId.compareTo(event.getId()) < 0) {
+                heldBack.add(event);
+            } else {
+                ready.add(event);
+            }
+        }
+        userAvroOutboxEventRepository.release(heldBack);
+        return ready;
+    }
+
+    private CompletableFuture<SendResult<String, byte[]>> send(UserAvroOutboxEvent event) {
+        ProducerRecord<String, byte[]> producerRecord = new ProducerRecord<>(event.getTopic(), event.getAggregateId(), event.getPayload());
+        producerRecord.headers().add(SCHEMA_FINGERPRINT_HEADER,
+                ByteBuffer.allocate(Long.BYTES).putLong(event.getSchemaFingerprint()).array());
+        return kafkaTemplate.send(producerRecord);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        producerFactory.destroy();
+    }
+}
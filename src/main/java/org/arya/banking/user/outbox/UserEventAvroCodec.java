@@ -0,0 +1,55 @@
+package org.arya.banking.user.outbox;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.arya.banking.common.avro.UserCreateEvent;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Encodes {@link UserCreateEvent} as plain Avro binary.
+ * <p>
+ * Each thread keeps its own output buffer, datum writer and binary encoder, so encoding an event allocates
+ * little more than the returned byte array. Consumers resolve the writer schema from
+ * {@link #SCHEMA_FINGERPRINT}, the CRC-64-AVRO fingerprint of its parsing canonical form.
+ * </p>
+ */
+@Component
+public class UserEventAvroCodec {
+
+    public static final Schema SCHEMA = UserCreateEvent.getClassSchema();
+    public static final long SCHEMA_FINGERPRINT = SchemaNormalization.parsingFingerprint64(SCHEMA);
+
+    private static final ThreadLocal<Encoding> ENCODING = ThreadLocal.withInitial(Encoding::new);
+
+    /**
+     * Encodes the event.
+     *
+     * @param userCreateEvent the event to encode
+     * @return the Avro binary encoding of the event
+     */
+    public byte[] encode(UserCreateEvent userCreateEvent) {
+        Encoding encoding = ENCODING.get();
+        encoding.out.reset();
+        encoding.encoder = EncoderFactory.get().directBinaryEncoder(encoding.out, encoding.encoder);
+        try {
+            encoding.writer.write(userCreateEvent, encoding.encoder);
+            encoding.encoder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode user event", e);
+        }
+        return encoding.out.toByteArray();
+    }
+
+    private static final class Encoding {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(128);
+        private final SpecificDatumWriter<UserCreateEvent> writer = new SpecificDatumWriter<>(UserCreateEvent.class);
+        private BinaryEncoder encoder;
+    }
+}
@@ -0,0 +1,111 @@
+package org.arya.banking.user.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Collapses outbox writes for the same aggregate into a single event carrying the latest state.
+ * <p>
+ * Downstream consumers only need the latest status of each user. Inside a transaction, writes are buffered per
+ * aggregateId and only the last one per aggregate is performed just before commit, so it still commits atomically
+ * with the state change.
+ * </p>
+ * <p>
+ * Outside a transaction the state change is already committed, so its event is never held in memory: every write is
+ * persisted immediately. With {@code arya.user.outbox.coalesce-window-ms} above zero, the write upserts the
+ * aggregate's pending event instead of inserting a new one, and the event is only handed to the dispatcher when the
+ * window closes, so writes within the window collapse into the stored event. An event whose hand-off is lost, because
+ * the instance stopped, is still pending and is published by the polling sweep. With the default window of zero,
+ * writes are inserted and dispatched immediately.
+ * </p>
+ */
+@Slf4j
+@Component
+public class UserOutboxCoalescer {
+
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Runnable> windowedDispatches = new ConcurrentHashMap<>();
+
+    @Value("${arya.user.outbox.coalesce-window-ms:0}")
+    private long coalesceWindowMs;
+
+    public UserOutboxCoalescer() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-outbox-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Performs the outbox write for the aggregate, collapsing it with the other writes of its transaction or window.
+     *
+     * @param aggregateId the aggregate the event belongs to
+     * @param write inserts the event carrying the aggregate's current state and dispatches it
+     * @param upsert upserts the aggregate's pending event with the current state and returns its dispatch
+     */
+    public void write(String aggregateId, Runnable write, Supplier<Runnable> upsert) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionWrites().put(aggregateId, write);
+        } else if (coalesceWindowMs > 0) {
+            Runnable dispatch = upsert.get();
+            if (null == windowedDispatches.put(aggregateId, dispatch)) {
+                scheduler.schedule(() -> flush(aggregateId), coalesceWindowMs, TimeUnit.MILLISECONDS);
+            }
+        } else {
+            write.run();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Runnable> transactionWrites() {
+        Map<String, Runnable> writes = (Map<String, Runnable>) TransactionSynchronizationManager.getResource(this);
+        if (null == writes) {
+            Map<String, Runnable> pendingWrites = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, pendingWrites);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    pendingWrites.values().forEach(Runnable::run);
+                    pendingWrites.clear();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(UserOutboxCoalescer.this);
+                }
+            });
+            writes = pendingWrites;
+        }
+        return writes;
+    }
+
+    private void flush(String aggregateId) {
+        Runnable dispatch = windowedDispatches.remove(aggregateId);
+        if (null != dispatch) {
+            try {
+                dispatch.run();
+            } catch (RuntimeException e) {
+                log.warn("Failed to dispatch coalesced outbox event for user: {}, leaving it to the polling sweep", aggregateId, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        scheduler.shutdownNow();
+        windowedDispatches.keySet().forEach(this::flush);
+    }
+}
@@ -0,0 +1,254 @@
+package org.arya.banking.user.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.arya.banking.user.repository.UserOutboxEventRepository;
+import org.arya.banking.user.service.UserOutboxRetentionService;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes outbox events as soon as they are written instead of waiting for the next polling run.
+ * <p>
+ * {@code UserValidator} hands every saved outbox event to {@link #dispatch(Object)}; once the surrounding
+ * transaction commits the event is queued in memory. A single worker thread drains the queue in micro-batches of
+ * up to {@code arya.user.outbox.batch-size} events, waiting at most {@code arya.user.outbox.linger-ms} for a batch
+ * to fill, sends the batch to Kafka in one go and moves the acknowledged events to the outbox archive.
+ * </p>
+ * <p>
+ * Anything this path misses, because the queue was full, a send failed or the instance stopped, is still pending
+ * in the outbox and is picked up by the polling publishers, which now only act as a fallback sweep. Delivery stays
+ * at-least-once.
+ * </p>
+ * <p>
+ * JSON events are claimed before they are sent by moving them from {@code PENDING} to
+ * {@value UserOutboxEvent#SENDING} for {@code arya.user.outbox.claim-lease}, so the polling publisher of the
+ * outbox library, which only reads pending events, does not send them a second time. Events whose send fails are
+ * handed back as pending, and claims left behind by a stopped instance are released once their lease expires.
+ * </p>
+ * <p>
+ * The time from writing an event to its acknowledgement by Kafka is published as the
+ * {@code arya.user.outbox.publish.lag} timer, read to the second from the timestamp of the event's ObjectId.
+ * </p>
+ */
+@Slf4j
+@Component
+public class UserOutboxDispatcher implements SmartLifecycle {
+
+    private final UserOutboxRetentionService userOutboxRetentionService;
+    private final UserOutboxEventRepository userOutboxEventRepository;
+    private final ObjectProvider<UserAvroOutboxRelay> userAvroOutboxRelay;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final BlockingQueue<Object> queue;
+    private final Timer publishLag;
+
+    @Value("${arya.user.outbox.event-driven:true}")
+    private boolean eventDriven;
+
+    @Value("${arya.user.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${arya.user.outbox.linger-ms:5}")
+    private long lingerMs;
+
+    @Value("${arya.user.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${arya.user.outbox.claim-lease:PT1M}")
+    private Duration claimLease;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public UserOutboxDispatcher(UserOutboxRetentionService userOutboxRetentionService,
+                                UserOutboxEventRepository userOutboxEventRepository,
+                                ObjectProvider<UserAvroOutboxRelay> userAvroOutboxRelay,
+                                ProducerFactory<String, Object> outboxProducerFactory,
+                                MeterRegistry meterRegistry,
+                                @Value("${arya.user.outbox.queue-capacity:10000}") int queueCapacity) {
+        this.userOutboxRetentionService = userOutboxRetentionService;
+        this.userOutboxEventRepository = userOutboxEventRepository;
+        this.userAvroOutboxRelay = userAvroOutboxRelay;
+        this.kafkaTemplate = new KafkaTemplate<>(outboxProducerFactory);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.publishLag = publishLagTimer(meterRegistry, "json");
+    }
+
+    static Timer publishLagTimer(MeterRegistry meterRegistry, String format) {
+        return Timer.builder("arya.user.outbox.publish.lag")
+                .description("Time from writing a user outbox event to its acknowledgement by Kafka")
+                .tag("format", format)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    static Counter deadLetteredCounter(MeterRegistry meterRegistry, String format) {
+        return Counter.builder("arya.user.outbox.dead-lettered")
+                .description("User outbox events given up after exhausting their retries")
+                .tag("format", format)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a saved outbox event for immediate publishing once the current transaction, if any, commits.
+     *
+     * @param outboxEvent the saved {@link UserOutboxEvent} or {@link UserAvroOutboxEvent}
+     */
+    public void dispatch(Object outboxEvent) {
+        if (!eventDriven || !running) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(outboxEvent);
+                }
+            });
+        } else {
+            enqueue(outboxEvent);
+        }
+    }
+
+    private void enqueue(Object outboxEvent) {
+        if (!queue.offer(outboxEvent)) {
+            log.debug("Outbox dispatch queue full, leaving event to the polling sweep");
+        }
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                Object first = queue.poll(1, TimeUnit.SECONDS);
+                if (null == first) {
+                    continue;
+                }
+                List<Object> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Object next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (null == next) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                publish(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to publish outbox batch, leaving it to the polling sweep", e);
+            }
+        }
+    }
+
+    private void publish(List<Object> batch) throws InterruptedException {
+        List<UserOutboxEvent> jsonEvents = new ArrayList<>(batch.size());
+        List<UserAvroOutboxEvent> avroEvents = new ArrayList<>();
+        for (Object outboxEvent : batch) {
+            if (outboxEvent instanceof UserOutboxEvent userOutboxEvent) {
+                jsonEvents.add(userOutboxEvent);
+            } else if (outboxEvent instanceof UserAvroOutboxEvent userAvroOutboxEvent) {
+                avroEvents.add(userAvroOutboxEvent);
+            }
+        }
+        if (!avroEvents.isEmpty()) {
+            userAvroOutboxRelay.ifAvailable(relay -> relay.publish(avroEvents));
+        }
+        if (!jsonEvents.isEmpty()) {
+            publishJson(jsonEvents);
+        }
+    }
+
+    private void publishJson(List<UserOutboxEvent> events) throws InterruptedException {
+        Set<String> claimedIds = new HashSet<>(userOutboxEventRepository.claim(
+                events.stream().map(UserOutboxEvent::getId).toList(), Instant.now(), claimLease));
+        List<UserOutboxEvent> claimed = events.stream().filter(event -> claimedIds.contains(event.getId())).toList();
+        List<CompletableFuture<SendResult<String, Object>>> sends = claimed.stream()
+                .map(event -> kafkaTemplate.send(new ProducerRecord<>(event.getTopic(), event.getAggregateId(), (Object) event.getPayload())))
+                .toList();
+        List<UserOutboxEvent> published = new ArrayList<>(claimed.size());
+        List<String> failed = new ArrayList<>();
+        try {
+            for (int i = 0; i < claimed.size(); i++) {
+                try {
+                    sends.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                    published.add(claimed.get(i));
+                    recordPublishLag(claimed.get(i).getId());
+                } catch (ExecutionException | TimeoutException e) {
+                    failed.add(claimed.get(i).getId());
+                    log.warn("Failed to publish outbox event for user: {}, leaving it to the polling sweep", claimed.get(i).getAggregateId(), e);
+                }
+            }
+        } finally {
+            userOutboxRetentionService.archive(published);
+            userOutboxEventRepository.release(failed);
+        }
+        log.debug("Published {} of {} outbox events, {} claimed elsewhere", published.size(), events.size(), events.size() - claimed.size());
+    }
+
+    /**
+     * Hands events claimed by an instance that stopped mid-send back to the polling publisher.
+     */
+    @Scheduled(fixedDelayString = "${arya.user.outbox.claim-release-interval-ms:60000}")
+    public void releaseExpiredClaims() {
+        long released = userOutboxEventRepository.releaseExpiredClaims(Instant.now());
+        if (released > 0) {
+            log.warn("Released {} user outbox events whose send claim expired", released);
+        }
+    }
+
+    private void recordPublishLag(String id) {
+        if (null != id && ObjectId.isValid(id)) {
+            publishLag.record(System.currentTimeMillis() - new ObjectId(id).getDate().getTime(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::drain, "user-outbox-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (null != worker) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -8,12 +8,38 @@ import org.arya.banking.common.model.OutboxStatus;
 import org.springframework.data.annotation.PersistenceCreator;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.Arrays;
+import java.util.List;
+
 @Data
 @SuperBuilder
 @EqualsAndHashCode(callSuper = true)
 @Document(collection = "user_outbox")
 public class UserOutboxEvent extends OutboxEvent {
 
+    public static final String ARCHIVE_COLLECTION = "user_outbox_archive";
+    public static final String OUTBOX_STATUS = "outboxStatus";
+
+    /**
+     * Status of an event claimed by the event-driven dispatcher while it is being sent. Only ever written to Mongo,
+     * it hides the event from the polling publisher, which only reads {@code PENDING} events.
+     */
+    public static final String SENDING = "SENDING";
+
+    /**
+     * Statuses of events the publisher still has to handle; every other event has been published and can be archived.
+     */
+    public static final List<String> UNPUBLISHED_STATUSES = List.of(OutboxStatus.PENDING.name(), SENDING, "FAILED");
+
+    /**
+     * Statuses of events that have been published and are ready to be archived, listed positively so the compaction
+     * query can use an index.
+     */
+    public static final List<String> PUBLISHED_STATUSES = Arrays.stream(OutboxStatus.values())
+            .map(Enum::name)
+            .filter(status -> !UNPUBLISHED_STATUSES.contains(status))
+            .toList();
+
     @PersistenceCreator
     public UserOutboxEvent(String id, String aggregateId, String eventType, String payload,
                            String topic, OutboxStatus outboxStatus, int retryCount) {
@@ -0,0 +1,20 @@
+package org.arya.banking.user.repository;
+
+import org.arya.banking.user.constants.ProvisioningStatus;
+import org.arya.banking.user.outbox.KeyCloakProvisioningTask;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface KeyCloakProvisioningTaskRepository extends MongoRepository<KeyCloakProvisioningTask, String>, KeyCloakProvisioningTaskRepositoryCustom {
+
+    List<KeyCloakProvisioningTask> findByStatusAndNextAttemptAtLessThanEqual(ProvisioningStatus status, Instant nextAttemptAt, Pageable pageable);
+
+    List<KeyCloakProvisioningTask> findByStatus(ProvisioningStatus status, Pageable pageable);
+
+    long countByStatus(ProvisioningStatus status);
+}
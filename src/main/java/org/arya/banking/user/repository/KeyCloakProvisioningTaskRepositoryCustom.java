@@ -0,0 +1,16 @@
+package org.arya.banking.user.repository;
+
+import org.arya.banking.user.outbox.KeyCloakProvisioningTask;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+public interface KeyCloakProvisioningTaskRepositoryCustom {
+
+    Optional<KeyCloakProvisioningTask> claim(String id, Instant now, Duration lease);
+
+    Optional<KeyCloakProvisioningTask> rearm(String id, Instant now);
+
+    long expirePasswords(Instant createdBefore);
+}
@@ -0,0 +1,81 @@
+package org.arya.banking.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.arya.banking.user.outbox.KeyCloakProvisioningTask;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.arya.banking.user.constants.ProvisioningStatus.FAILED;
+import static org.arya.banking.user.constants.ProvisioningStatus.PASSWORD_RESET_REQUIRED;
+import static org.arya.banking.user.constants.ProvisioningStatus.PENDING;
+
+/**
+ * Atomic state transitions of {@link KeyCloakProvisioningTask} shared by every instance of the service.
+ */
+@RequiredArgsConstructor
+public class KeyCloakProvisioningTaskRepositoryCustomImpl implements KeyCloakProvisioningTaskRepositoryCustom {
+
+    private static final String ID = "id";
+    private static final String STATUS = "status";
+    private static final String RETRY_COUNT = "retryCount";
+    private static final String NEXT_ATTEMPT_AT = "nextAttemptAt";
+    private static final String ENCRYPTED_PASSWORD = "encryptedPassword";
+    private static final String CREATED_AT = "createdAt";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Claims a due task by pushing its next attempt past the lease, so no other worker picks it up meanwhile.
+     *
+     * @param id the task identifier
+     * @param now the current time
+     * @param lease how long the claiming worker owns the task
+     * @return the claimed task, or empty if it is gone, failed or already claimed
+     */
+    @Override
+    public Optional<KeyCloakProvisioningTask> claim(String id, Instant now, Duration lease) {
+        Query query = new Query(Criteria.where(ID).is(id).and(STATUS).is(PENDING).and(NEXT_ATTEMPT_AT).lte(now));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query,
+                new Update().set(NEXT_ATTEMPT_AT, now.plus(lease)),
+                FindAndModifyOptions.options().returnNew(true),
+                KeyCloakProvisioningTask.class));
+    }
+
+    /**
+     * Puts a task that exhausted its retries back into the queue with a fresh retry budget, as long as it is
+     * still failed and still holds the password.
+     *
+     * @param id the task identifier
+     * @param now the time from which the task is due again
+     * @return the re-armed task, or empty if it is gone, no longer failed or already re-armed by another instance
+     */
+    @Override
+    public Optional<KeyCloakProvisioningTask> rearm(String id, Instant now) {
+        Query query = new Query(Criteria.where(ID).is(id).and(STATUS).is(FAILED).and(ENCRYPTED_PASSWORD).exists(true));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query,
+                new Update().set(STATUS, PENDING).set(RETRY_COUNT, 0).set(NEXT_ATTEMPT_AT, now),
+                FindAndModifyOptions.options().returnNew(true),
+                KeyCloakProvisioningTask.class));
+    }
+
+    /**
+     * Drops the encrypted password of every failed task created before the cutoff and marks it as requiring a
+     * password reset, so ciphertext is never kept beyond the retention.
+     *
+     * @param createdBefore tasks created before this instant lose their password
+     * @return the number of tasks whose password was dropped
+     */
+    @Override
+    public long expirePasswords(Instant createdBefore) {
+        return mongoTemplate.updateMulti(new Query(Criteria.where(STATUS).is(FAILED).and(CREATED_AT).lt(createdBefore)),
+                new Update().unset(ENCRYPTED_PASSWORD).set(STATUS, PASSWORD_RESET_REQUIRED),
+                KeyCloakProvisioningTask.class).getModifiedCount();
+    }
+}
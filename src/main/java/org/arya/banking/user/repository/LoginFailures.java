@@ -0,0 +1,15 @@
+package org.arya.banking.user.repository;
+
+/**
+ * The failed login counter of a user after an increment, and whether that increment locked the account.
+ * <p>
+ * The lock is decided by the same atomic write that applied the increment, so exactly one write crosses the
+ * threshold, however many batches increment the counter concurrently.
+ * </p>
+ *
+ * @param userId the unique identifier of the user
+ * @param loginFailedAttempts the stored failed login counter
+ * @param lockedNow true if the increment carried the counter across the lockout threshold
+ */
+public record LoginFailures(String userId, int loginFailedAttempts, boolean lockedNow) {
+}
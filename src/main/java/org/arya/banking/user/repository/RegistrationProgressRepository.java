@@ -4,12 +4,10 @@ import org.arya.banking.common.model.RegistrationProgress;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.List;
 
 @Repository
-public interface RegistrationProgressRepository extends MongoRepository<RegistrationProgress, String> {
+public interface RegistrationProgressRepository extends MongoRepository<RegistrationProgress, String>, RegistrationProgressRepositoryCustom {
 
-    Optional<RegistrationProgress> findByUserIdAndSubStatus(String userId, String subStatus);
-
-    Optional<RegistrationProgress> findByUserIdAndStatus(String userId, String status);
+    List<RegistrationProgress> findByUserId(String userId);
 }
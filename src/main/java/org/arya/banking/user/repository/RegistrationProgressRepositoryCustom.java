@@ -0,0 +1,8 @@
+package org.arya.banking.user.repository;
+
+import org.arya.banking.common.model.RegistrationProgress;
+
+public interface RegistrationProgressRepositoryCustom {
+
+    boolean insertIfAbsent(RegistrationProgress registrationProgress);
+}
@@ -0,0 +1,51 @@
+package org.arya.banking.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.arya.banking.common.model.RegistrationProgress;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Writes of {@link RegistrationProgress} that must stay correct when several instances record the same step.
+ */
+@RequiredArgsConstructor
+public class RegistrationProgressRepositoryCustomImpl implements RegistrationProgressRepositoryCustom {
+
+    private static final String ID = "_id";
+    private static final String USER_ID = "userId";
+    private static final String SUB_STATUS = "subStatus";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Records a registration step with an upsert on (userId, subStatus), so a step is stored once however many
+     * instances record it concurrently.
+     * <p>
+     * Every field is written with {@code $setOnInsert}, leaving an existing record untouched. Two upserts racing on
+     * the unique {@code registration_progress_user_sub_status_uq} index may leave the loser with a duplicate key
+     * error, which means the step already exists.
+     * </p>
+     *
+     * @param registrationProgress the registration step to record
+     * @return true if this call inserted the step, false if it was already recorded
+     */
+    @Override
+    public boolean insertIfAbsent(RegistrationProgress registrationProgress) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(registrationProgress, document);
+        document.remove(ID);
+        Update update = new Update();
+        document.forEach(update::setOnInsert);
+        try {
+            return null != mongoTemplate.upsert(new Query(Criteria.where(USER_ID).is(registrationProgress.getUserId())
+                            .and(SUB_STATUS).is(registrationProgress.getSubStatus())),
+                    update, RegistrationProgress.class).getUpsertedId();
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+}
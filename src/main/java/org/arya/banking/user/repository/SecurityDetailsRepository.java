@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface SecurityDetailsRepository extends MongoRepository<SecurityDetails, String> {
+public interface SecurityDetailsRepository extends MongoRepository<SecurityDetails, String>, SecurityDetailsRepositoryCustom {
 
     Optional<SecurityDetails> findByUserId(String userId);
 }
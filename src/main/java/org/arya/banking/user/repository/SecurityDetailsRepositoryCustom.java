@@ -0,0 +1,19 @@
+package org.arya.banking.user.repository;
+
+import org.arya.banking.common.model.SecurityQuestions;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface SecurityDetailsRepositoryCustom {
+
+    Optional<LoginFailures> incrementLoginFailedAttempts(String userId, int lockThreshold);
+
+    List<LoginFailures> incrementLoginFailedAttempts(Map<String, Integer> incrementsByUserId, int lockThreshold);
+
+    List<LoginFailures> incrementLoginFailedAttempts(Map<String, Integer> incrementsByUserId, int lockThreshold,
+                                                     String source, Map<String, Long> offsetsByUserId);
+
+    boolean updateSecurityQuestions(String userId, List<SecurityQuestions> securityQuestions);
+}
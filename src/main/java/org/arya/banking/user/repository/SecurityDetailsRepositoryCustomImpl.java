@@ -0,0 +1,170 @@
+package org.arya.banking.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.arya.banking.common.model.SecurityDetails;
+import org.arya.banking.common.model.SecurityQuestions;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Atomic, server-side updates on {@link SecurityDetails} that must not go through a read-modify-write cycle.
+ * <p>
+ * Failed login increments are applied with an update pipeline that also locks the account when the increment
+ * carries the counter across the lockout threshold: it stamps {@code lockedAt} and records a token identifying the
+ * write in {@code lockedBy}. A caller finds out whether its own write locked the account by reading its token back,
+ * so the decision cannot race with concurrent increments even when the counters are read by a separate query.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class SecurityDetailsRepositoryCustomImpl implements SecurityDetailsRepositoryCustom {
+
+    private static final String USER_ID = "userId";
+    private static final String LOGIN_FAILED_ATTEMPTS = "loginFailedAttempts";
+    private static final String LOCKED_AT = "lockedAt";
+    private static final String LOCKED_BY = "lockedBy";
+    private static final String SECURITY_QUESTIONS = "securityQuestions";
+    private static final String LOGIN_EVENT_OFFSETS = "loginEventOffsets";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Increments the failed login counter of the user in a single round trip.
+     *
+     * @param userId the unique identifier of the user
+     * @param lockThreshold the counter value at which the account is locked
+     * @return the incremented counter and whether this increment locked the account, or empty if no security
+     *         details exist
+     */
+    @Override
+    public Optional<LoginFailures> incrementLoginFailedAttempts(String userId, int lockThreshold) {
+        String token = UUID.randomUUID().toString();
+        Document updated = mongoTemplate.findAndModify(projectedByUserId(Criteria.where(USER_ID).is(userId)),
+                incrementPipeline(1, lockThreshold, token, null, null),
+                FindAndModifyOptions.options().returnNew(true),
+                Document.class, mongoTemplate.getCollectionName(SecurityDetails.class));
+        return Optional.ofNullable(updated).map(document -> toLoginFailures(document, token));
+    }
+
+    /**
+     * Applies the failed login increments of many users with one unordered bulk write and reads the resulting
+     * counters back with a single query.
+     *
+     * @param incrementsByUserId number of failed logins to add, keyed by user ID; zero only reads the counter
+     * @param lockThreshold the counter value at which the account is locked
+     * @return the counters of the users that have security details
+     */
+    @Override
+    public List<LoginFailures> incrementLoginFailedAttempts(Map<String, Integer> incrementsByUserId, int lockThreshold) {
+        return incrementLoginFailedAttempts(incrementsByUserId, lockThreshold, null, Map.of());
+    }
+
+    /**
+     * Applies the failed login increments of many users at most once per event offset.
+     * <p>
+     * Each increment also records the offset it was taken from under {@code loginEventOffsets.<source>}, and
+     * only applies while the stored offset is lower. Its lock token is derived from the source and offset, so a
+     * redelivered batch leaves the counters untouched but still reports the lock taken by its first delivery,
+     * which lets the caller retry whatever failed after it.
+     * </p>
+     *
+     * @param incrementsByUserId number of failed logins to add, keyed by user ID; zero only reads the counter
+     * @param lockThreshold the counter value at which the account is locked
+     * @param source the event source the offsets belong to, such as a partition; null applies unconditionally
+     * @param offsetsByUserId the offset of the last event of each user contributing to the increment
+     * @return the counters of the users that have security details
+     */
+    @Override
+    public List<LoginFailures> incrementLoginFailedAttempts(Map<String, Integer> incrementsByUserId, int lockThreshold,
+                                                            String source, Map<String, Long> offsetsByUserId) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SecurityDetails.class);
+        Map<String, String> tokensByUserId = new HashMap<>();
+        String batchToken = UUID.randomUUID().toString();
+        for (Map.Entry<String, Integer> increment : incrementsByUserId.entrySet()) {
+            if (increment.getValue() > 0) {
+                Criteria criteria = Criteria.where(USER_ID).is(increment.getKey());
+                Long offset = null != source ? offsetsByUserId.get(increment.getKey()) : null;
+                String offsetField = null;
+                String token = batchToken;
+                if (null != offset) {
+                    offsetField = LOGIN_EVENT_OFFSETS + "." + source;
+                    criteria.and(offsetField).not().gte(offset);
+                    token = source + ":" + offset;
+                }
+                bulkOperations.updateOne(new Query(criteria),
+                        incrementPipeline(increment.getValue(), lockThreshold, token, offsetField, offset));
+                tokensByUserId.put(increment.getKey(), token);
+            }
+        }
+        if (!tokensByUserId.isEmpty()) {
+            bulkOperations.execute();
+        }
+
+        return mongoTemplate.find(projectedByUserId(Criteria.where(USER_ID).in(incrementsByUserId.keySet())),
+                        Document.class, mongoTemplate.getCollectionName(SecurityDetails.class)).stream()
+                .map(document -> toLoginFailures(document, tokensByUserId.get(document.getString(USER_ID))))
+                .toList();
+    }
+
+    /**
+     * Replaces the security questions of the user with a targeted {@code $set}, leaving the failed login
+     * counter and every other field untouched by concurrent writers.
+     *
+     * @param userId the unique identifier of the user
+     * @param securityQuestions the complete list of security questions to store
+     * @return true if security details exist for the user
+     */
+    @Override
+    public boolean updateSecurityQuestions(String userId, List<SecurityQuestions> securityQuestions) {
+        return mongoTemplate.updateFirst(new Query(Criteria.where(USER_ID).is(userId)),
+                new Update().set(SECURITY_QUESTIONS, securityQuestions),
+                SecurityDetails.class).getMatchedCount() > 0;
+    }
+
+    /**
+     * Adds the increment to the counter, and when the counter goes from below the threshold to at least the
+     * threshold, stamps the lock with the write's token. Every expression of the stage reads the document as it
+     * was before the stage, so the comparison sees the counter before and after this increment only.
+     */
+    static AggregationUpdate incrementPipeline(int increment, int lockThreshold, String token, String offsetField, Long offset) {
+        Document previous = new Document("$ifNull", List.of("$" + LOGIN_FAILED_ATTEMPTS, 0));
+        Document incremented = new Document("$add", List.of(previous, increment));
+        Document crossed = new Document("$and", List.of(
+                new Document("$lt", List.of(previous, lockThreshold)),
+                new Document("$gte", List.of(incremented, lockThreshold))));
+        Document set = new Document(LOGIN_FAILED_ATTEMPTS, incremented)
+                .append(LOCKED_AT, new Document("$cond", List.of(crossed, "$$NOW", "$" + LOCKED_AT)))
+                .append(LOCKED_BY, new Document("$cond", List.of(crossed, new Document("$literal", token), "$" + LOCKED_BY)));
+        if (null != offsetField) {
+            set.append(offsetField, offset);
+        }
+        Document stage = new Document("$set", set);
+        return AggregationUpdate.from(List.of((AggregationOperation) context -> stage));
+    }
+
+    private static LoginFailures toLoginFailures(Document document, String token) {
+        Number loginFailedAttempts = document.get(LOGIN_FAILED_ATTEMPTS, Number.class);
+        return new LoginFailures(document.getString(USER_ID),
+                null != loginFailedAttempts ? loginFailedAttempts.intValue() : 0,
+                null != token && token.equals(document.getString(LOCKED_BY)));
+    }
+
+    private static Query projectedByUserId(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include(USER_ID, LOGIN_FAILED_ATTEMPTS, LOCKED_BY);
+        return query;
+    }
+}
@@ -0,0 +1,9 @@
+package org.arya.banking.user.repository;
+
+import org.arya.banking.user.outbox.UserAvroOutboxEvent;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserAvroOutboxEventRepository extends MongoRepository<UserAvroOutboxEvent, String>, UserAvroOutboxEventRepositoryCustom {
+}
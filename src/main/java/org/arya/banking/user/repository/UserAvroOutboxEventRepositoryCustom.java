@@ -0,0 +1,26 @@
+package org.arya.banking.user.repository;
+
+import org.arya.banking.user.outbox.UserAvroOutboxEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface UserAvroOutboxEventRepositoryCustom {
+
+    List<UserAvroOutboxEvent> claimPending(int limit, Instant now, Duration lease);
+
+    List<UserAvroOutboxEvent> claim(Collection<String> ids, Instant now, Duration lease);
+
+    Map<String, String> findOldestOutstandingIds(Collection<String> aggregateIds, Collection<String> excludedIds);
+
+    void release(Collection<UserAvroOutboxEvent> events);
+
+    void recordFailure(UserAvroOutboxEvent event);
+
+    void deadLetter(UserAvroOutboxEvent event);
+
+    UserAvroOutboxEvent upsertPending(UserAvroOutboxEvent event);
+}
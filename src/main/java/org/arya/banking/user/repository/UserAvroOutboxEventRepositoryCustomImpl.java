@@ -0,0 +1,168 @@
+package org.arya.banking.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.arya.banking.user.outbox.UserAvroOutboxEvent;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.arya.banking.user.outbox.UserAvroOutboxEvent.DEAD_LETTER_COLLECTION;
+
+/**
+ * Claims on {@link UserAvroOutboxEvent} shared by every instance of the service.
+ * <p>
+ * An event is claimed by stamping it with a random token and a lease expiry in one conditional update that only
+ * matches unclaimed or expired events, then reading back the events carrying the token. Only the instance that
+ * holds the claim sends the event, so the scheduled relay and the event-driven dispatcher of different instances
+ * never publish the same event concurrently.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class UserAvroOutboxEventRepositoryCustomImpl implements UserAvroOutboxEventRepositoryCustom {
+
+    private static final String ID = "id";
+    private static final String AGGREGATE_ID = "aggregateId";
+    private static final String EVENT_TYPE = "eventType";
+    private static final String TOPIC = "topic";
+    private static final String PAYLOAD = "payload";
+    private static final String SCHEMA_FINGERPRINT = "schemaFingerprint";
+    private static final String CREATED_AT = "createdAt";
+    private static final String RETRY_COUNT = "retryCount";
+    private static final String CLAIM_TOKEN = "claimToken";
+    private static final String CLAIMED_UNTIL = "claimedUntil";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Claims the oldest unclaimed events, whatever their retry count.
+     *
+     * @param limit the maximum number of events to claim
+     * @param now the current time
+     * @param lease how long the claim is held
+     * @return the claimed events in ID order
+     */
+    @Override
+    public List<UserAvroOutboxEvent> claimPending(int limit, Instant now, Duration lease) {
+        Query candidates = new Query(unclaimed(now)).with(Sort.by(ID)).limit(limit);
+        candidates.fields().include(ID);
+        List<String> ids = mongoTemplate.find(candidates, UserAvroOutboxEvent.class).stream().map(UserAvroOutboxEvent::getId).toList();
+        return ids.isEmpty() ? List.of() : claim(ids, now, lease);
+    }
+
+    /**
+     * Claims the given events if no other worker holds them.
+     *
+     * @param ids the event identifiers
+     * @param now the current time
+     * @param lease how long the claim is held
+     * @return the events this call claimed, in ID order; events claimed elsewhere or already published are left out
+     */
+    @Override
+    public List<UserAvroOutboxEvent> claim(Collection<String> ids, Instant now, Duration lease) {
+        String claimToken = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(new Query(new Criteria().andOperator(Criteria.where(ID).in(ids), unclaimed(now))),
+                new Update().set(CLAIM_TOKEN, claimToken).set(CLAIMED_UNTIL, now.plus(lease)),
+                UserAvroOutboxEvent.class);
+        return mongoTemplate.find(new Query(Criteria.where(CLAIM_TOKEN).is(claimToken)).with(Sort.by(ID)), UserAvroOutboxEvent.class);
+    }
+
+    /**
+     * Finds, per aggregate, the oldest event still in the outbox outside the given events.
+     *
+     * @param aggregateIds the aggregates to look at
+     * @param excludedIds the events to ignore, typically the batch being published
+     * @return the ID of the oldest other outstanding event, keyed by aggregate ID
+     */
+    @Override
+    public Map<String, String> findOldestOutstandingIds(Collection<String> aggregateIds, Collection<String> excludedIds) {
+        Aggregation aggregation = Aggregation.newAggregation(UserAvroOutboxEvent.class,
+                Aggregation.match(Criteria.where(AGGREGATE_ID).in(aggregateIds).and(ID).nin(excludedIds)),
+                Aggregation.group(AGGREGATE_ID).min(ID).as("oldestId"));
+        Map<String, String> oldestIds = new HashMap<>();
+        mongoTemplate.aggregate(aggregation, Document.class).forEach(group ->
+                oldestIds.put(group.getString("_id"), String.valueOf(group.get("oldestId"))));
+        return oldestIds;
+    }
+
+    /**
+     * Gives up the claim on events that were not sent, so the next run picks them up without waiting for the lease.
+     *
+     * @param events the claimed events
+     */
+    @Override
+    public void release(Collection<UserAvroOutboxEvent> events) {
+        for (UserAvroOutboxEvent event : events) {
+            mongoTemplate.updateFirst(claimedBy(event), new Update().unset(CLAIM_TOKEN).unset(CLAIMED_UNTIL), UserAvroOutboxEvent.class);
+        }
+    }
+
+    /**
+     * Counts a failed send and gives up the claim.
+     *
+     * @param event the claimed event
+     */
+    @Override
+    public void recordFailure(UserAvroOutboxEvent event) {
+        mongoTemplate.updateFirst(claimedBy(event), new Update().inc(RETRY_COUNT, 1).unset(CLAIM_TOKEN).unset(CLAIMED_UNTIL),
+                UserAvroOutboxEvent.class);
+    }
+
+    /**
+     * Moves an event that exhausted its retries to {@value UserAvroOutboxEvent#DEAD_LETTER_COLLECTION}.
+     *
+     * @param event the claimed event
+     */
+    @Override
+    public void deadLetter(UserAvroOutboxEvent event) {
+        event.setClaimToken(null);
+        event.setClaimedUntil(null);
+        mongoTemplate.save(event, DEAD_LETTER_COLLECTION);
+        mongoTemplate.remove(new Query(Criteria.where(ID).is(event.getId())), UserAvroOutboxEvent.class);
+    }
+
+    /**
+     * Replaces the payload of the aggregate's unclaimed event of the same type, or inserts the event if there is
+     * none, so writes made while the event waits to be published collapse into one event carrying the latest payload.
+     * <p>
+     * A claimed event may be in flight and is left alone. The collapsed event keeps its ID, and with it its place in
+     * the aggregate's order.
+     * </p>
+     *
+     * @param event the event to write
+     * @return the stored unclaimed event
+     */
+    @Override
+    public UserAvroOutboxEvent upsertPending(UserAvroOutboxEvent event) {
+        Query query = new Query(Criteria.where(AGGREGATE_ID).is(event.getAggregateId())
+                .and(EVENT_TYPE).is(event.getEventType())
+                .and(CLAIM_TOKEN).exists(false));
+        Update update = new Update().set(PAYLOAD, event.getPayload())
+                .set(SCHEMA_FINGERPRINT, event.getSchemaFingerprint())
+                .setOnInsert(TOPIC, event.getTopic())
+                .setOnInsert(RETRY_COUNT, 0)
+                .setOnInsert(CREATED_AT, event.getCreatedAt());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                UserAvroOutboxEvent.class);
+    }
+
+    private static Criteria unclaimed(Instant now) {
+        return new Criteria().orOperator(Criteria.where(CLAIMED_UNTIL).exists(false), Criteria.where(CLAIMED_UNTIL).lt(now));
+    }
+
+    private static Query claimedBy(UserAvroOutboxEvent event) {
+        return new Query(Criteria.where(ID).is(event.getId()).and(CLAIM_TOKEN).is(event.getClaimToken()));
+    }
+}
@@ -5,5 +5,5 @@ import org.arya.banking.user.outbox.UserOutboxEvent;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface UserOutboxEventRepository extends OutboxEventRepository<UserOutboxEvent> {
+public interface UserOutboxEventRepository extends OutboxEventRepository<UserOutboxEvent>, UserOutboxEventRepositoryCustom {
 }
@@ -0,0 +1,19 @@
+package org.arya.banking.user.repository;
+
+import org.arya.banking.user.outbox.UserOutboxEvent;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface UserOutboxEventRepositoryCustom {
+
+    List<String> claim(Collection<String> ids, Instant now, Duration lease);
+
+    void release(Collection<String> ids);
+
+    long releaseExpiredClaims(Instant now);
+
+    UserOutboxEvent upsertPending(UserOutboxEvent event);
+}
@@ -0,0 +1,117 @@
+package org.arya.banking.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.arya.banking.user.outbox.UserOutboxEvent;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.arya.banking.common.model.OutboxStatus.PENDING;
+import static org.arya.banking.user.outbox.UserOutboxEvent.OUTBOX_STATUS;
+import static org.arya.banking.user.outbox.UserOutboxEvent.SENDING;
+
+/**
+ * Claims on {@link UserOutboxEvent} taken by the event-driven dispatcher.
+ * <p>
+ * A claimed event is moved from {@code PENDING} to {@value UserOutboxEvent#SENDING}, which hides it from the
+ * polling publisher of the outbox library, so the two never send the same event concurrently. Claims carry a lease;
+ * events whose claim expired, because the instance stopped mid-send, are moved back to {@code PENDING}.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class UserOutboxEventRepositoryCustomImpl implements UserOutboxEventRepositoryCustom {
+
+    private static final String ID = "id";
+    private static final String AGGREGATE_ID = "aggregateId";
+    private static final String EVENT_TYPE = "eventType";
+    private static final String TOPIC = "topic";
+    private static final String PAYLOAD = "payload";
+    private static final String RETRY_COUNT = "retryCount";
+    private static final String CLAIM_TOKEN = "claimToken";
+    private static final String CLAIMED_UNTIL = "claimedUntil";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Claims the given events if they are still pending.
+     * <p>
+     * The claimed events are read back by ID, filtered on the claim token, so the read uses the {@code _id} index
+     * instead of scanning the outbox for the token.
+     * </p>
+     *
+     * @param ids the event identifiers
+     * @param now the current time
+     * @param lease how long the claim is held
+     * @return the identifiers of the events this call claimed
+     */
+    @Override
+    public List<String> claim(Collection<String> ids, Instant now, Duration lease) {
+        String claimToken = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(new Query(Criteria.where(ID).in(ids).and(OUTBOX_STATUS).is(PENDING.name())),
+                new Update().set(OUTBOX_STATUS, SENDING).set(CLAIM_TOKEN, claimToken).set(CLAIMED_UNTIL, now.plus(lease)),
+                UserOutboxEvent.class);
+        Query claimed = new Query(Criteria.where(ID).in(ids).and(CLAIM_TOKEN).is(claimToken));
+        claimed.fields().include(ID);
+        return mongoTemplate.find(claimed, UserOutboxEvent.class).stream().map(UserOutboxEvent::getId).toList();
+    }
+
+    /**
+     * Hands claimed events that were not sent back to the polling publisher.
+     *
+     * @param ids the event identifiers
+     */
+    @Override
+    public void release(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(new Query(Criteria.where(ID).in(ids).and(OUTBOX_STATUS).is(SENDING)), pending(), UserOutboxEvent.class);
+    }
+
+    /**
+     * Moves events whose claim expired back to {@code PENDING}.
+     *
+     * @param now the current time
+     * @return the number of events released
+     */
+    @Override
+    public long releaseExpiredClaims(Instant now) {
+        return mongoTemplate.updateMulti(new Query(Criteria.where(OUTBOX_STATUS).is(SENDING).and(CLAIMED_UNTIL).lt(now)),
+                pending(), UserOutboxEvent.class).getModifiedCount();
+    }
+
+    /**
+     * Replaces the payload of the aggregate's pending event of the same type, or inserts the event if there is none,
+     * so writes made while the event waits to be published collapse into one event carrying the latest payload.
+     * <p>
+     * An event already claimed for sending is no longer pending and is left alone, so a payload is never lost to an
+     * event that is being sent with an older one.
+     * </p>
+     *
+     * @param event the event to write
+     * @return the stored pending event
+     */
+    @Override
+    public UserOutboxEvent upsertPending(UserOutboxEvent event) {
+        Query query = new Query(Criteria.where(AGGREGATE_ID).is(event.getAggregateId())
+                .and(OUTBOX_STATUS).is(PENDING.name())
+                .and(EVENT_TYPE).is(event.getEventType()));
+        Update update = new Update().set(PAYLOAD, event.getPayload())
+                .setOnInsert(TOPIC, event.getTopic())
+                .setOnInsert(RETRY_COUNT, 0);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().upsert(true).returnNew(true),
+                UserOutboxEvent.class);
+    }
+
+    private static Update pending() {
+        return new Update().set(OUTBOX_STATUS, PENDING.name()).unset(CLAIM_TOKEN).unset(CLAIMED_UNTIL);
+    }
+}
@@ -1,5 +1,7 @@
 package org.arya.banking.user.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.arya.banking.common.model.User;
@@ -7,9 +9,9 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
 
     Optional<User> findByEmailIdOrPrimaryContactNumber(String emailId, String contactNumber);
 
-    Optional<User> findByUserId(String userId);
+    List<User> findByEmailIdInOrPrimaryContactNumberIn(Collection<String> emailIds, Collection<String> contactNumbers);
 }
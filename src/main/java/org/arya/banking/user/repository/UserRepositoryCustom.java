@@ -0,0 +1,22 @@
+package org.arya.banking.user.repository;
+
+import org.arya.banking.common.model.Address;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.dto.UpdateContactDto;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    Optional<User> findByUserIdWithFields(String userId, Collection<String> fields);
+
+    Optional<UserSnapshot> findSnapshotByUserId(String userId);
+
+    List<UserSnapshot> findSnapshotsByUserIdIn(Collection<String> userIds);
+
+    Optional<User> updateContactNumberAndAddress(String userId, UpdateContactDto updateContactDto, Address address, Collection<Long> expectedVersions);
+
+    boolean updateStatus(String userId, String status, Collection<Long> expectedVersions);
+}
@@ -0,0 +1,214 @@
+package org.arya.banking.user.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.arya.banking.common.model.Address;
+import org.arya.banking.common.model.ContactNumber;
+import org.arya.banking.common.model.ContactNumberType;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.dto.UpdateContactDto;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads and writes on {@link User} documents that derived queries cannot express.
+ * <p>
+ * Profile updates are applied as single server-side update pipelines touching only the affected fields and array
+ * elements, so concurrent updates of different parts of a profile cannot overwrite each other.
+ * </p>
+ * <p>
+ * Every update also increments the {@value UserSnapshot#VERSION} of the document, and can be made conditional on
+ * the versions the caller read: the filter then also requires the stored version to be one of them, so an update
+ * based on a stale read matches nothing instead of applying, without a transaction.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String USER_ID = "userId";
+    private static final String STATUS = "status";
+    private static final String PRIMARY_CONTACT_NUMBER = "primaryContactNumber";
+    private static final String CONTACT_NUMBERS = "contactNumbers";
+    private static final String CONTACT_NUMBER = "contactNumber";
+    private static final String TYPE = "type";
+    private static final String ADDRESSES = "addresss";
+    private static final String ADDRESS_TYPE = "addressType";
+    private static final String SET = "$set";
+    private static final String THIS = "$$this";
+    private static final String VERSION = UserSnapshot.VERSION;
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Loads only the given fields of the user, so the rest of the document is neither read nor transferred.
+     *
+     * @param userId the unique identifier of the user
+     * @param fields the document fields to load
+     * @return the user with only the given fields set, or empty if the user does not exist
+     */
+    @Override
+    public Optional<User> findByUserIdWithFields(String userId, Collection<String> fields) {
+        Query query = new Query(Criteria.where(USER_ID).is(userId));
+        query.fields().include(fields.toArray(String[]::new));
+        return Optional.ofNullable(mongoTemplate.findOne(query, User.class));
+    }
+
+    /**
+     * Loads the user together with the version of its document, which is the user's ETag.
+     *
+     * @param userId the unique identifier of the user
+     * @return the snapshot, or empty if the user does not exist
+     */
+    @Override
+    public Optional<UserSnapshot> findSnapshotByUserId(String userId) {
+        Document document = mongoTemplate.findOne(new Query(Criteria.where(USER_ID).is(userId)), Document.class,
+                mongoTemplate.getCollectionName(User.class));
+        return Optional.ofNullable(document).map(stored -> UserSnapshot.read(mongoTemplate.getConverter(), stored));
+    }
+
+    /**
+     * Loads many users together with the versions of their documents with a single query.
+     *
+     * @param userIds the unique identifiers of the users
+     * @return the snapshots of the users that exist, in no particular order
+     */
+    @Override
+    public List<UserSnapshot> findSnapshotsByUserIdIn(Collection<String> userIds) {
+        return mongoTemplate.find(new Query(Criteria.where(USER_ID).in(userIds)), Document.class, mongoTemplate.getCollectionName(User.class))
+                .stream()
+                .map(stored -> UserSnapshot.read(mongoTemplate.getConverter(), stored))
+                .toList();
+    }
+
+    /**
+     * Adds or promotes a contact number and replaces the address of the same type in one round trip.
+     *
+     * @param userId the unique identifier of the user
+     * @param updateContactDto the contact number to add or make primary, or null
+     * @param address the address replacing the one of its type, or null
+     * @param expectedVersions the versions the update may be based on, or null for an unconditional update
+     * @return the updated user, or empty if the user does not exist or has none of the {@code expectedVersions}
+     */
+    @Override
+    public Optional<User> updateContactNumberAndAddress(String userId, UpdateContactDto updateContactDto, Address address, Collection<Long> expectedVersions) {
+        List<Document> stages = new ArrayList<>(3);
+        if (null != updateContactDto) {
+            String contactNumber = updateContactDto.contactNumber();
+            stages.add(updateContactDto.isPrimary()
+                    ? setPrimaryContactNumberStage(contactNumber, toMongoType(newContactNumber(contactNumber, ContactNumberType.PRIMARY)))
+                    : addContactNumberStage(contactNumber, toMongoType(newContactNumber(contactNumber, ContactNumberType.OTHERS))));
+        }
+        if (null != address) {
+            stages.add(replaceAddressStage(toMongoType(address.getAddressType()), toMongoType(address)));
+        }
+        stages.add(incrementVersionStage());
+        AggregationUpdate update = AggregationUpdate.from(stages.stream()
+                .map(stage -> (AggregationOperation) context -> stage).toList());
+        return Optional.ofNullable(mongoTemplate.findAndModify(byUserId(userId, expectedVersions), update,
+                FindAndModifyOptions.options().returnNew(true), User.class));
+    }
+
+    /**
+     * Sets the status of the user without reading the document.
+     *
+     * @param userId the unique identifier of the user
+     * @param status the new status
+     * @param expectedVersions the versions the update may be based on, or null for an unconditional update
+     * @return false if the user does not exist or has none of the {@code expectedVersions}
+     */
+    @Override
+    public boolean updateStatus(String userId, String status, Collection<Long> expectedVersions) {
+        return mongoTemplate.updateFirst(byUserId(userId, expectedVersions), new Update().set(STATUS, status).inc(VERSION, 1L), User.class)
+                .getMatchedCount() > 0;
+    }
+
+    /**
+     * Selects the user, and with expected versions only while the stored version is one of them. A document
+     * without a version has never been updated and matches version 0.
+     */
+    static Query byUserId(String userId, Collection<Long> expectedVersions) {
+        Query query = new Query(Criteria.where(USER_ID).is(userId));
+        if (null != expectedVersions) {
+            query.addCriteria(expectedVersions.contains(0L)
+                    ? new Criteria().orOperator(Criteria.where(VERSION).exists(false), Criteria.where(VERSION).in(expectedVersions))
+                    : Criteria.where(VERSION).in(expectedVersions));
+        }
+        return query;
+    }
+
+    private Object toMongoType(Object value) {
+        return mongoTemplate.getConverter().convertToMongoType(value);
+    }
+
+    private static ContactNumber newContactNumber(String contactNumber, ContactNumberType type) {
+        return ContactNumber.builder()
+                .contactNumber(contactNumber)
+                .isVerified(false)
+                .type(type).build();
+    }
+
+    /**
+     * Keeps user supplied values from being read as field paths or operators inside the pipeline.
+     */
+    private static Document literal(Object value) {
+        return new Document("$literal", value);
+    }
+
+    /**
+     * Increments the version of the document, starting from 0 for documents written before it was introduced.
+     */
+    static Document incrementVersionStage() {
+        return new Document(SET, new Document(VERSION, new Document("$add", List.of(new Document("$ifNull", List.of("$" + VERSION, 0L)), 1L))));
+    }
+
+    /**
+     * Makes the number primary: the current primary entry becomes an other number, and the number's entry is
+     * promoted, or appended if the user does not have it yet.
+     */
+    static Document setPrimaryContactNumberStage(String contactNumber, Object primaryContactNumber) {
+        Document promoted = new Document("$map", new Document("input", new Document("$ifNull", List.of("$" + CONTACT_NUMBERS, List.of())))
+                .append("in", new Document("$cond", List.of(
+                        new Document("$eq", List.of(THIS + "." + CONTACT_NUMBER, contactNumber)),
+                        new Document("$mergeObjects", List.of(THIS, new Document(TYPE, ContactNumberType.PRIMARY.name()))),
+                        new Document("$cond", List.of(
+                                new Document("$eq", List.of(THIS + "." + TYPE, ContactNumberType.PRIMARY.name())),
+                                new Document("$mergeObjects", List.of(THIS, new Document(TYPE, ContactNumberType.OTHERS.name()))),
+                                THIS))))));
+        Document contactNumbers = new Document("$let", new Document("vars", new Document("promoted", promoted))
+                .append("in", new Document("$cond", List.of(
+                        new Document("$in", List.of(contactNumber, "$$promoted." + CONTACT_NUMBER)),
+                        "$$promoted",
+                        new Document("$concatArrays", List.of("$$promoted", List.of(literal(primaryContactNumber))))))));
+        return new Document(SET, new Document(PRIMARY_CONTACT_NUMBER, contactNumber).append(CONTACT_NUMBERS, contactNumbers));
+    }
+
+    /**
+     * Appends the number as an other number unless the user already has it.
+     */
+    static Document addContactNumberStage(String contactNumber, Object otherContactNumber) {
+        Document current = new Document("$ifNull", List.of("$" + CONTACT_NUMBERS, List.of()));
+        return new Document(SET, new Document(CONTACT_NUMBERS, new Document("$cond", List.of(
+                new Document("$in", List.of(contactNumber, new Document("$ifNull", List.of("$" + CONTACT_NUMBERS + "." + CONTACT_NUMBER, List.of())))),
+                current,
+                new Document("$concatArrays", List.of(current, List.of(literal(otherContactNumber))))))));
+    }
+
+    /**
+     * Replaces the address of the same type, or appends it if the user has none of that type.
+     */
+    static Document replaceAddressStage(Object addressType, Object address) {
+        Document otherAddresses = new Document("$filter", new Document("input", new Document("$ifNull", List.of("$" + ADDRESSES, List.of())))
+                .append("cond", new Document("$ne", List.of(THIS + "." + ADDRESS_TYPE, literal(addressType)))));
+        return new Document(SET, new Document(ADDRESSES, new Document("$concatArrays", List.of(otherAddresses, List.of(literal(address))))));
+    }
+}
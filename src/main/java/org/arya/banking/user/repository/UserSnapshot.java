@@ -0,0 +1,42 @@
+package org.arya.banking.user.repository;
+
+import org.arya.banking.common.model.User;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+/**
+ * A user as read from Mongo, together with the version of the stored document.
+ * <p>
+ * Every update of a user increments the {@value #VERSION} field of its document, so the version identifies the
+ * stored state: it is the user's ETag, and passing it back to a conditional update makes the update apply only
+ * while the document still has that version. Documents written before the field existed have version 0.
+ * </p>
+ *
+ * @param user the mapped user
+ * @param version the version of the stored document
+ */
+public record UserSnapshot(User user, long version) {
+
+    public static final String VERSION = "version";
+
+    /**
+     * Maps a stored user document to a snapshot.
+     *
+     * @param converter the converter mapping the document to a {@link User}
+     * @param document the stored document
+     * @return the user and the version of the document
+     */
+    public static UserSnapshot read(MongoConverter converter, Document document) {
+        return new UserSnapshot(converter.read(User.class, document), versionOf(document));
+    }
+
+    /**
+     * Reads the version of a stored user document.
+     *
+     * @param document the stored document, or a projection including {@value #VERSION}
+     * @return the version, 0 if the document was never updated
+     */
+    public static long versionOf(Document document) {
+        return document.get(VERSION) instanceof Number version ? version.longValue() : 0L;
+    }
+}
@@ -0,0 +1,16 @@
+package org.arya.banking.user.service;
+
+import org.arya.banking.common.model.User;
+
+import java.util.List;
+
+public interface KeyCloakProvisioningService {
+
+    void enqueue(User user, String password);
+
+    void enqueueAll(List<User> users, List<String> passwords);
+
+    void provisionDueTasks();
+
+    void reconcile();
+}
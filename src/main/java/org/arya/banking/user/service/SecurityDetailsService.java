@@ -1,10 +1,23 @@
 package org.arya.banking.user.service;
 
+import org.arya.banking.user.dto.LoginAttemptDto;
 import org.arya.banking.user.dto.UpdateSecurityDetailsDto;
 
+import java.util.List;
 import java.util.Map;
 
 public interface SecurityDetailsService {
 
+    /**
+     * Response code of a user in a login attempt batch whose failures were counted but whose account could not be
+     * locked.
+     */
+    String ACCOUNT_LOCK_FAILED_500 = "500";
+
     Map<String, String> updateSecurityCredentials(String userId, UpdateSecurityDetailsDto updateSecurityDetailsDto);
+
+    List<Map<String, String>> updateLoginAttempts(List<LoginAttemptDto> loginAttempts);
+
+    List<Map<String, String>> updateLoginAttempts(List<LoginAttemptDto> loginAttempts, String source,
+                                                  Map<String, Long> offsetsByUserId);
 }
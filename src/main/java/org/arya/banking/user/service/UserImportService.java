@@ -0,0 +1,10 @@
+package org.arya.banking.user.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public interface UserImportService {
+
+    void importUsers(InputStream records, OutputStream results) throws IOException;
+}
@@ -0,0 +1,14 @@
+package org.arya.banking.user.service;
+
+import org.arya.banking.user.outbox.UserOutboxEvent;
+
+import java.util.List;
+
+public interface UserOutboxRetentionService {
+
+    void archive(List<UserOutboxEvent> events);
+
+    void compact();
+
+    void refreshMetrics();
+}
@@ -2,8 +2,15 @@ package org.arya.banking.user.service;
 
 import org.arya.banking.common.dto.UserResponse;
 import org.arya.banking.common.model.User;
+import org.arya.banking.user.constants.UserProfileField;
 import org.arya.banking.user.dto.RegisterDto;
+import org.arya.banking.user.dto.UserBatchResponse;
 import org.arya.banking.user.dto.UserUpdateDto;
+import org.arya.banking.user.repository.UserSnapshot;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface UserService {
     
@@ -11,6 +18,14 @@ public interface UserService {
 
     User getUserById(String userId);
 
+    UserSnapshot getUserSnapshot(String userId);
+
+    Map<String, Object> getUserFields(String userId, Set<UserProfileField> fields);
+
+    UserBatchResponse getUsersByIds(List<String> userIds);
+
     UserResponse updateUser(String userId, UserUpdateDto userUpdateDto);
+
+    UserResponse updateUser(String userId, UserUpdateDto userUpdateDto, String ifMatch);
     
 }
@@ -0,0 +1,259 @@
+package org.arya.banking.user.service.impl;
+
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.arya.banking.common.dto.KeyCloakResponse;
+import org.arya.banking.common.model.KeyCloakUser;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.external.KeyCloakService;
+import org.arya.banking.user.outbox.KeyCloakProvisioningTask;
+import org.arya.banking.user.repository.KeyCloakProvisioningTaskRepository;
+import org.arya.banking.user.service.KeyCloakProvisioningService;
+import org.arya.banking.user.util.PasswordCipher;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.arya.banking.user.config.KeyCloakProvisioningConfig.KEYCLOAK_PROVISIONING_EXECUTOR;
+import static org.arya.banking.user.constants.ProvisioningStatus.FAILED;
+import static org.arya.banking.user.constants.ProvisioningStatus.PENDING;
+
+/**
+ * Service implementation creating registered users in Keycloak outside the registration request.
+ * <p>
+ * Registration persists a {@link KeyCloakProvisioningTask} next to the user document. Once the surrounding
+ * transaction commits, the task is handed to a background executor which calls the auth-service. Failed
+ * attempts are retried with exponential backoff by a periodic sweep, which also picks up tasks that were
+ * never dispatched because the instance stopped or the executor was saturated. Tasks that exhaust their
+ * retries are marked failed and re-armed by a slower reconciliation sweep, so every registered user eventually
+ * exists in Keycloak. A user that already exists is recognised by the {@code 409} of the creation endpoint, which
+ * completes its task like a successful creation.
+ * </p>
+ * <p>
+ * A failed task keeps the encrypted password for at most {@code password-retention} after registration. After
+ * that the ciphertext is dropped and the task is kept as {@code PASSWORD_RESET_REQUIRED}.
+ * </p>
+ * <p>
+ * Every creation attempt is timed as {@code arya.user.keycloak.create-user}, tagged with its outcome.
+ * </p>
+ */
+@Slf4j
+@Service
+public class KeyCloakProvisioningServiceImpl implements KeyCloakProvisioningService {
+
+    private final KeyCloakProvisioningTaskRepository keyCloakProvisioningTaskRepository;
+    private final KeyCloakService keyCloakService;
+    private final PasswordCipher passwordCipher;
+    private final TaskExecutor keyCloakProvisioningExecutor;
+    private final Timer createdTimer;
+    private final Timer existingTimer;
+    private final Timer failedTimer;
+
+    @Value("${arya.user.keycloak-provisioning.max-retries:8}")
+    private int maxRetries;
+
+    @Value("${arya.user.keycloak-provisioning.initial-backoff:PT2S}")
+    private Duration initialBackoff;
+
+    @Value("${arya.user.keycloak-provisioning.max-backoff:PT5M}")
+    private Duration maxBackoff;
+
+    @Value("${arya.user.keycloak-provisioning.lease:PT1M}")
+    private Duration lease;
+
+    @Value("${arya.user.keycloak-provisioning.sweep-batch-size:100}")
+    private int sweepBatchSize;
+
+    @Value("${arya.user.keycloak-provisioning.password-retention:P7D}")
+    private Duration passwordRetention;
+
+    public KeyCloakProvisioningServiceImpl(KeyCloakProvisioningTaskRepository keyCloakProvisioningTaskRepository,
+                                           KeyCloakService keyCloakService,
+                                           PasswordCipher passwordCipher,
+                                           @Qualifier(KEYCLOAK_PROVISIONING_EXECUTOR) TaskExecutor keyCloakProvisioningExecutor,
+                                           MeterRegistry meterRegistry) {
+        this.keyCloakProvisioningTaskRepository = keyCloakProvisioningTaskRepository;
+        this.keyCloakService = keyCloakService;
+        this.passwordCipher = passwordCipher;
+        this.keyCloakProvisioningExecutor = keyCloakProvisioningExecutor;
+        this.createdTimer = createUserTimer(meterRegistry, "created");
+        this.existingTimer = createUserTimer(meterRegistry, "exists");
+        this.failedTimer = createUserTimer(meterRegistry, "failed");
+    }
+
+    private static Timer createUserTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("arya.user.keycloak.create-user")
+                .description("Latency of creating a user in Keycloak through the auth-service")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Persists a provisioning task for the user and schedules its first attempt after commit.
+     *
+     * @param user the registered user
+     * @param password the plain text password chosen at registration
+     */
+    @Override
+    public void enqueue(User user, String password) {
+        KeyCloakProvisioningTask task = keyCloakProvisioningTaskRepository.save(generateTask(user, password, Instant.now()));
+        dispatchAfterCommit(task.getId());
+    }
+
+    /**
+     * Persists the provisioning tasks of many users with a single insert and schedules their first attempts.
+     *
+     * @param users the registered users
+     * @param passwords the plain text passwords, in the same order as the users
+     */
+    @Override
+    public void enqueueAll(List<User> users, List<String> passwords) {
+        Instant now = Instant.now();
+        List<KeyCloakProvisioningTask> tasks = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            tasks.add(generateTask(users.get(i), passwords.get(i), now));
+        }
+        keyCloakProvisioningTaskRepository.insert(tasks).forEach(task -> dispatchAfterCommit(task.getId()));
+    }
+
+    private KeyCloakProvisioningTask generateTask(User user, String password, Instant now) {
+        return KeyCloakProvisioningTask.builder()
+                .userId(user.getUserId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .emailId(user.getEmailId())
+                .encryptedPassword(passwordCipher.encrypt(password))
+                .status(PENDING)
+                .retryCount(0)
+                .nextAttemptAt(now)
+                .createdAt(now).build();
+    }
+
+    /**
+     * Hands every due task to the provisioning executor.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${arya.user.keycloak-provisioning.sweep-interval-ms:30000}")
+    public void provisionDueTasks() {
+        keyCloakProvisioningTaskRepository.findByStatusAndNextAttemptAtLessThanEqual(PENDING, Instant.now(), PageRequest.of(0, sweepBatchSize))
+                .forEach(task -> keyCloakProvisioningExecutor.execute(() -> provision(task.getId())));
+    }
+
+    /**
+     * Drops the passwords of failed tasks past the retention, then re-arms the remaining failed tasks for
+     * provisioning. Users created by an earlier attempt whose response was lost are answered with a conflict on
+     * their next attempt, which drops their task.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${arya.user.keycloak-provisioning.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        Instant now = Instant.now();
+        long expired = keyCloakProvisioningTaskRepository.expirePasswords(now.minus(passwordRetention));
+        if (expired > 0) {
+            log.warn("Dropped the stored password of {} users missing in Keycloak for over {}, they need a password reset",
+                    expired, passwordRetention);
+        }
+
+        int rearmed = 0;
+        for (KeyCloakProvisioningTask task : keyCloakProvisioningTaskRepository.findByStatus(FAILED, PageRequest.of(0, sweepBatchSize))) {
+            if (keyCloakProvisioningTaskRepository.rearm(task.getId(), now).isPresent()) {
+                rearmed++;
+            }
+        }
+        if (rearmed > 0) {
+            log.warn("Re-armed {} users missing in Keycloak for provisioning", rearmed);
+        }
+    }
+
+    private void dispatchAfterCommit(String taskId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keyCloakProvisioningExecutor.execute(() -> provision(taskId));
+                }
+            });
+        } else {
+            keyCloakProvisioningExecutor.execute(() -> provision(taskId));
+        }
+    }
+
+    /**
+     * Claims the task and creates the Keycloak user, deleting the task on success and rescheduling it on failure.
+     *
+     * @param taskId the task identifier
+     */
+    private void provision(String taskId) {
+        Instant now = Instant.now();
+        keyCloakProvisioningTaskRepository.claim(taskId, now, lease).ifPresent(task -> {
+            try {
+                createKeyCloakUser(task);
+                keyCloakProvisioningTaskRepository.deleteById(task.getId());
+                log.info("Provisioned user: {} in Keycloak", task.getUserId());
+            } catch (RuntimeException e) {
+                reschedule(task, now, e);
+            }
+        });
+    }
+
+    private void createKeyCloakUser(KeyCloakProvisioningTask task) {
+        KeyCloakUser keyCloakUser = KeyCloakUser.builder().username(task.getUserId())
+                .firstName(task.getFirstName())
+                .lastName(task.getLastName())
+                .emailId(task.getEmailId())
+                .password(passwordCipher.decrypt(task.getEncryptedPassword())).build();
+        Timer outcome = failedTimer;
+        long start = System.nanoTime();
+        try {
+            ResponseEntity<KeyCloakResponse> response = keyCloakService.createKeyCloakUser(keyCloakUser);
+            log.debug("Response from keycloak: {}", response);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                throw new IllegalStateException("Keycloak user creation returned " + response.getStatusCode());
+            }
+            outcome = createdTimer;
+        } catch (FeignException e) {
+            if (e.status() != HttpStatus.CONFLICT.value()) {
+                throw e;
+            }
+            outcome = existingTimer;
+            log.info("User: {} already exists in Keycloak", task.getUserId());
+        } finally {
+            outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void reschedule(KeyCloakProvisioningTask task, Instant now, RuntimeException e) {
+        int retryCount = task.getRetryCount() + 1;
+        task.setRetryCount(retryCount);
+        task.setLastError(e.getMessage());
+        if (retryCount >= maxRetries) {
+            task.setStatus(FAILED);
+            log.error("Giving up provisioning user: {} in Keycloak after {} attempts", task.getUserId(), retryCount, e);
+        } else {
+            task.setNextAttemptAt(now.plus(backoff(retryCount)));
+            log.warn("Provisioning user: {} in Keycloak failed, attempt {} of {}", task.getUserId(), retryCount, maxRetries, e);
+        }
+        keyCloakProvisioningTaskRepository.save(task);
+    }
+
+    private Duration backoff(int retryCount) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(retryCount - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+}
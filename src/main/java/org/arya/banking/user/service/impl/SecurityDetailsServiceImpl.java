@@ -1,21 +1,28 @@
 package org.arya.banking.user.service.impl;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.arya.banking.common.dto.UserResponse;
 import org.arya.banking.common.exception.SecurityDetailsNotFoundException;
 import org.arya.banking.common.model.SecurityDetails;
 import org.arya.banking.common.model.SecurityQuestions;
 import org.arya.banking.common.utils.CommonUtils;
+import org.arya.banking.user.dto.LoginAttemptDto;
 import org.arya.banking.user.dto.UpdateSecurityDetailsDto;
 import org.arya.banking.user.dto.UserUpdateDto;
+import org.arya.banking.user.repository.LoginFailures;
 import org.arya.banking.user.repository.SecurityDetailsRepository;
 import org.arya.banking.user.service.SecurityDetailsService;
 import org.arya.banking.user.service.UserService;
 import org.arya.banking.user.util.UserValidator;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -29,22 +36,39 @@ import static org.arya.banking.common.utils.CommonUtils.isNotEmpty;
  * Service implementation for managing user security details.
  * <p>
  * This class provides functionality to update security credentials for a user,
- * including handling security questions and answers.
+ * including handling security questions and answers. Accounts locked after too many failed logins are counted
+ * as {@code arya.user.security.lockouts}.
  * </p>
  */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class SecurityDetailsServiceImpl implements SecurityDetailsService {
 
+    private static final int MAX_LOGIN_FAILED_ATTEMPTS = 5;
+
     private final SecurityDetailsRepository securityDetailsRepository;
     private final UserValidator userValidator;
     private final UserService userService;
+    private final Counter lockouts;
+
+    public SecurityDetailsServiceImpl(SecurityDetailsRepository securityDetailsRepository,
+                                      UserValidator userValidator,
+                                      UserService userService,
+                                      MeterRegistry meterRegistry) {
+        this.securityDetailsRepository = securityDetailsRepository;
+        this.userValidator = userValidator;
+        this.userService = userService;
+        this.lockouts = Counter.builder("arya.user.security.lockouts")
+                .description("Accounts locked after too many failed login attempts")
+                .register(meterRegistry);
+    }
 
     /**
      * Updates the security credentials for the specified user.
      * <p>
      * Finds the user's existing security details, updates the answers to security questions
-     * as provided in the update DTO, and saves the changes.
+     * as provided in the update DTO, and writes only the security questions back. A failed login is recorded with a single
+     * atomic increment of the failure counter instead of loading and saving the whole document.
      * </p>
      *
      * @param userId the ID of the user whose security credentials are to be updated
@@ -55,33 +79,122 @@ public class SecurityDetailsServiceImpl implements SecurityDetailsService {
     @Override
     public Map<String, String> updateSecurityCredentials(String userId, UpdateSecurityDetailsDto updateSecurityDetailsDto) {
 
-        SecurityDetails securityDetails = getSecurityDetails(userId);
         Map<String, String> response = getResponseMap(userId);
         response.put(RESPONSE_CODE, SECURITY_DETAILS_UPDATED_200);
 
         if (isNotEmpty(updateSecurityDetailsDto.securityQuestions())) {
+            SecurityDetails securityDetails = getSecurityDetails(userId);
             updateSecurityQuestions(updateSecurityDetailsDto, securityDetails);
             userValidator.validateAndInvokeUpdateRegistrationStep(userService.getUserById(userId), true, securityDetails);
             response.put(RESPONSE, "Security questions updated successfully");
+            if (!securityDetailsRepository.updateSecurityQuestions(userId, securityDetails.getSecurityQuestions())) {
+                throw securityDetailsNotFound();
+            }
         } else if (updateSecurityDetailsDto.loginFailed()) {
-            securityDetails.setLoginFailedAttempts(securityDetails.getLoginFailedAttempts() + 1);
-            validateAndLockAccount(securityDetails, response);
+            LoginFailures loginFailures = securityDetailsRepository.incrementLoginFailedAttempts(userId, MAX_LOGIN_FAILED_ATTEMPTS)
+                    .orElseThrow(this::securityDetailsNotFound);
+            validateAndLockAccount(loginFailures, response);
+        } else {
+            getSecurityDetails(userId);
         }
-        insertOrUpdateSecurityDetail(securityDetails);
         return response;
     }
 
-    private void validateAndLockAccount(SecurityDetails securityDetails, Map<String, String> response) {
+    /**
+     * Records a batch of login attempts reported by the auth-service.
+     * <p>
+     * Attempts are coalesced per user and applied with one bulk write. Each user gets the same response,
+     * and the same lockout decision, that one {@link #updateSecurityCredentials} call per attempt would
+     * have produced. Users without security details are reported as not found instead of failing the batch, and a
+     * user whose account could not be locked is reported with {@link #ACCOUNT_LOCK_FAILED_500}, since the increments
+     * of the whole batch are already applied by then.
+     * </p>
+     *
+     * @param loginAttempts the login attempts in the order they were observed
+     * @return one response map per distinct user, in order of first appearance
+     */
+    @Override
+    public List<Map<String, String>> updateLoginAttempts(List<LoginAttemptDto> loginAttempts) {
+        return updateLoginAttempts(loginAttempts, null, Map.of());
+    }
 
-        if(securityDetails.getLoginFailedAttempts() >= 5) {
+    /**
+     * Records a batch of login attempts consumed from an event stream that may redeliver it.
+     * <p>
+     * Behaves like {@link #updateLoginAttempts(List)}, but each user's increment is applied at most once per
+     * offset of {@code source}. When a redelivered batch reaches a user it already counted, the repository still
+     * reports the lock taken by the first delivery, so blocking a user that failed on the first delivery is retried.
+     * </p>
+     *
+     * @param loginAttempts the login attempts in the order they were observed
+     * @param source the event source the offsets belong to, such as a Kafka partition
+     * @param offsetsByUserId the offset of the last event of each user in the batch
+     * @return one response map per distinct user, in order of first appearance
+     */
+    @Override
+    public List<Map<String, String>> updateLoginAttempts(List<LoginAttemptDto> loginAttempts, String source,
+                                                         Map<String, Long> offsetsByUserId) {
+
+        Map<String, Integer> failedAttemptsByUserId = new LinkedHashMap<>();
+        loginAttempts.forEach(attempt ->
+                failedAttemptsByUserId.merge(attempt.userId(), attempt.loginFailed() ? 1 : 0, Integer::sum));
+
+        Map<String, LoginFailures> loginFailuresByUserId = new HashMap<>();
+        securityDetailsRepository.incrementLoginFailedAttempts(failedAttemptsByUserId, MAX_LOGIN_FAILED_ATTEMPTS, source, offsetsByUserId)
+                .forEach(loginFailures -> loginFailuresByUserId.put(loginFailures.userId(), loginFailures));
+
+        List<Map<String, String>> responses = new ArrayList<>(failedAttemptsByUserId.size());
+        failedAttemptsByUserId.forEach((userId, failedAttempts) -> {
+            Map<String, String> response = getResponseMap(userId);
+            LoginFailures loginFailures = loginFailuresByUserId.get(userId);
+            if (null == loginFailures) {
+                response.put(RESPONSE_CODE, String.valueOf(SECURITY_DETAILS_NOT_FOUND_404));
+                response.put(RESPONSE, "Security details not found");
+            } else {
+                response.put(RESPONSE_CODE, SECURITY_DETAILS_UPDATED_200);
+                if (failedAttempts > 0) {
+                    try {
+                        validateAndLockAccount(loginFailures, response);
+                    } catch (RuntimeException e) {
+                        log.error("Failed to lock user: {} after failed login attempts", userId, e);
+                        response.put(RESPONSE_CODE, ACCOUNT_LOCK_FAILED_500);
+                        response.put(RESPONSE, "Failed to lock user account");
+                    }
+                }
+            }
+            responses.add(response);
+        });
+        return responses;
+    }
+
+    /**
+     * Flags the account as disabled once the failed login counter reaches the threshold.
+     * <p>
+     * The repository locks the account in the same write that carries the counter across the threshold, so only
+     * the caller owning that write blocks the user. Later failures only report the account as disabled.
+     * </p>
+     *
+     * @param loginFailures the incremented failure counter and whether the increment locked the account
+     * @param response the response map to populate
+     */
+    private void validateAndLockAccount(LoginFailures loginFailures, Map<String, String> response) {
+
+        if(loginFailures.loginFailedAttempts() >= MAX_LOGIN_FAILED_ATTEMPTS) {
             response.put(DISABLE_USER, "true");
             response.put("response", "User account locked due to multiple failed login attempts");
-            UserUpdateDto userUpdateDto = new UserUpdateDto(true, null, null);
-            userService.updateUser(securityDetails.getUserId(), userUpdateDto);
+            if (loginFailures.lockedNow()) {
+                UserUpdateDto userUpdateDto = new UserUpdateDto(true, null, null);
+                userService.updateUser(loginFailures.userId(), userUpdateDto);
+                incrementAfterCommit(lockouts);
+            }
         }
     }
 
-    private void updateSecurityQuestions(UpdateSecurityDetailsDto updateSecurityDetailsDto, SecurityDetails securityDetails) {
+    /**
+     * Merges the submitted security questions into the user's security details, replacing the answers of
+     * questions already set. Package-private for the JMH benchmarks.
+     */
+    static void updateSecurityQuestions(UpdateSecurityDetailsDto updateSecurityDetailsDto, SecurityDetails securityDetails) {
         List<SecurityQuestions> securityQuestions = null != securityDetails.getSecurityQuestions() ? new ArrayList<>(securityDetails.getSecurityQuestions()) : new ArrayList<>();
         final Map<String, SecurityQuestions> securityQuestionsMap = isNotEmpty(securityDetails.getSecurityQuestions())
                 ? CommonUtils.convertListIntoMap(securityDetails.getSecurityQuestions(), SecurityQuestions::getQuestion)
@@ -103,13 +216,12 @@ public class SecurityDetailsServiceImpl implements SecurityDetailsService {
         securityDetails.setSecurityQuestions(securityQuestions);
     }
 
-    private void insertOrUpdateSecurityDetail(SecurityDetails securityDetails) {
-        securityDetailsRepository.save(securityDetails);
+    private SecurityDetails getSecurityDetails(String userId) {
+        return securityDetailsRepository.findByUserId(userId).orElseThrow(this::securityDetailsNotFound);
     }
 
-    private SecurityDetails getSecurityDetails(String userId) {
-        return securityDetailsRepository.findByUserId(userId).orElseThrow(
-                () -> new SecurityDetailsNotFoundException(NOT_FOUND_ERROR_CODE, SECURITY_DETAILS_NOT_FOUND_404, "Security details not found"));
+    private SecurityDetailsNotFoundException securityDetailsNotFound() {
+        return new SecurityDetailsNotFoundException(NOT_FOUND_ERROR_CODE, SECURITY_DETAILS_NOT_FOUND_404, "Security details not found");
     }
 
     private Map<String, String> getResponseMap(String userId) {
@@ -117,4 +229,20 @@ public class SecurityDetailsServiceImpl implements SecurityDetailsService {
         response.put(USER_ID, userId);
         return response;
     }
+
+    /**
+     * Counts a lockout once the update blocking the user has committed; a rolled back update locked nothing.
+     */
+    private static void incrementAfterCommit(Counter counter) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter.increment();
+                }
+            });
+        } else {
+            counter.increment();
+        }
+    }
 }
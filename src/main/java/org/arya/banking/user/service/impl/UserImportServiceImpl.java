@@ -0,0 +1,283 @@
+package org.arya.banking.user.service.impl;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.arya.banking.common.model.RegistrationProgress;
+import org.arya.banking.common.model.SecurityDetails;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.dto.RegisterDto;
+import org.arya.banking.user.dto.UserImportResult;
+import org.arya.banking.user.mapper.UserMapper;
+import org.arya.banking.user.outbox.KeyCloakProvisioningTask;
+import org.arya.banking.user.repository.RegistrationProgressRepository;
+import org.arya.banking.user.repository.SecurityDetailsRepository;
+import org.arya.banking.user.repository.UserRepository;
+import org.arya.banking.user.service.KeyCloakProvisioningService;
+import org.arya.banking.user.service.UserImportService;
+import org.arya.banking.user.util.UserIdGenerator;
+import org.arya.banking.user.util.UserValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.arya.banking.common.constants.RegistrationConstants.BASIC_DETAILS_ADDED;
+import static org.arya.banking.user.dto.UserImportResult.Status.DUPLICATE;
+import static org.arya.banking.user.dto.UserImportResult.Status.FAILED;
+import static org.arya.banking.user.dto.UserImportResult.Status.INVALID;
+
+/**
+ * Service implementation importing users in bulk from a stream of NDJSON {@link RegisterDto} records.
+ * <p>
+ * Records are read and validated one line at a time with the same rules as single registration. Valid records
+ * are collected into batches of {@code arya.user.import.batch-size}; each batch is checked for existing users with
+ * one query and its users, registration progress and security details are written with one multi-document insert
+ * per collection, and the Keycloak users are queued for provisioning. Only one batch is ever held in memory, so
+ * memory use does not depend on the size of the import.
+ * </p>
+ * <p>
+ * One {@link UserImportResult} per record is written to the result stream as NDJSON as soon as it is known:
+ * invalid records straight away, the others once their batch is written. Batches are not transactional; when a
+ * batch fails after its users were inserted, the users and everything already written for them are deleted again
+ * and every record of the batch that was not rejected is reported as failed.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final String USER_ALREADY_EXISTS = "User already exists";
+    private static final String USER_ID = "userId";
+
+    private final UserRepository userRepository;
+    private final RegistrationProgressRepository registrationProgressRepository;
+    private final SecurityDetailsRepository securityDetailsRepository;
+    private final KeyCloakProvisioningService keyCloakProvisioningService;
+    private final MongoTemplate mongoTemplate;
+    private final UserMapper userMapper;
+    private final UserValidator userValidator;
+    private final UserIdGenerator userIdGenerator;
+    private final Validator validator;
+    private final Gson gson;
+
+    @Value("${arya.user.import.batch-size:500}")
+    private int batchSize;
+
+    private record ImportRecord(long line, RegisterDto registerDto) {
+    }
+
+    /**
+     * Imports every record of the stream and writes one result per record.
+     *
+     * @param records NDJSON stream of registration requests
+     * @param results stream receiving the NDJSON results
+     * @throws IOException if reading the records or writing the results fails
+     */
+    @Override
+    public void importUsers(InputStream records, OutputStream results) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(records, UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(results, UTF_8));
+        Map<UserImportResult.Status, Long> summary = new EnumMap<>(UserImportResult.Status.class);
+        List<ImportRecord> batch = new ArrayList<>(batchSize);
+
+        long lineNumber = 0;
+        String line;
+        while (null != (line = reader.readLine())) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            UserImportResult rejection = validate(lineNumber, line, batch);
+            if (null != rejection) {
+                write(writer, rejection, summary);
+            }
+            if (batch.size() >= batchSize) {
+                flush(batch, writer, summary);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, writer, summary);
+        }
+        writer.flush();
+        log.info("Imported users: {}", summary);
+    }
+
+    /**
+     * Parses and validates a record, adding it to the batch when valid.
+     *
+     * @return the rejection of the record, or null if it was added to the batch
+     */
+    private UserImportResult validate(long lineNumber, String line, List<ImportRecord> batch) {
+        RegisterDto registerDto;
+        try {
+            registerDto = gson.fromJson(line, RegisterDto.class);
+        } catch (JsonParseException e) {
+            return UserImportResult.rejected(lineNumber, INVALID, "Malformed record: " + e.getMessage());
+        }
+        if (null == registerDto) {
+            return UserImportResult.rejected(lineNumber, INVALID, "Empty record");
+        }
+        Set<ConstraintViolation<RegisterDto>> violations = validator.validate(registerDto);
+        if (!violations.isEmpty()) {
+            return UserImportResult.rejected(lineNumber, INVALID, violations.stream()
+                    .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; ")));
+        }
+        batch.add(new ImportRecord(lineNumber, registerDto));
+        return null;
+    }
+
+    private void flush(List<ImportRecord> batch, Writer writer, Map<UserImportResult.Status, Long> summary) throws IOException {
+        UserImportResult[] results = new UserImportResult[batch.size()];
+        try {
+            importBatch(batch, results);
+        } catch (RuntimeException e) {
+            log.error("Failed to import batch of {} users", batch.size(), e);
+        }
+        for (int i = 0; i < results.length; i++) {
+            UserImportResult result = results[i];
+            write(writer, null != result ? result : UserImportResult.rejected(batch.get(i).line(), FAILED, "Import failed"), summary);
+        }
+        writer.flush();
+        batch.clear();
+    }
+
+    /**
+     * Writes the users of a batch that do not exist yet, filling in the result of every record.
+     */
+    private void importBatch(List<ImportRecord> batch, UserImportResult[] results) {
+        Set<String> emailIds = new HashSet<>();
+        Set<String> contactNumbers = new HashSet<>();
+        batch.forEach(importRecord -> {
+            emailIds.add(importRecord.registerDto().emailId());
+            contactNumbers.add(importRecord.registerDto().primaryContactNumber());
+        });
+        Set<String> takenEmailIds = new HashSet<>();
+        Set<String> takenContactNumbers = new HashSet<>();
+        userRepository.findByEmailIdInOrPrimaryContactNumberIn(emailIds, contactNumbers).forEach(user -> {
+            takenEmailIds.add(user.getEmailId());
+            takenContactNumbers.add(user.getPrimaryContactNumber());
+        });
+
+        List<User> users = new ArrayList<>(batch.size());
+        List<Integer> positions = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            RegisterDto registerDto = batch.get(i).registerDto();
+            if (takenEmailIds.contains(registerDto.emailId()) || takenContactNumbers.contains(registerDto.primaryContactNumber())) {
+                results[i] = UserImportResult.rejected(batch.get(i).line(), DUPLICATE, USER_ALREADY_EXISTS);
+            } else {
+                takenEmailIds.add(registerDto.emailId());
+                takenContactNumbers.add(registerDto.primaryContactNumber());
+                users.add(userValidator.generateRegisteredUser(userMapper.toEntity(registerDto), userIdGenerator.generate()));
+                positions.add(i);
+            }
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+
+        Map<Integer, BulkWriteError> failedInserts = insertUsers(users);
+        List<User> insertedUsers = new ArrayList<>(users.size());
+        List<String> passwords = new ArrayList<>(users.size());
+        List<RegistrationProgress> registrationProgress = new ArrayList<>(users.size());
+        List<SecurityDetails> securityDetails = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            ImportRecord importRecord = batch.get(positions.get(i));
+            BulkWriteError error = failedInserts.get(i);
+            if (null != error) {
+                results[positions.get(i)] = ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY
+                        ? UserImportResult.rejected(importRecord.line(), DUPLICATE, USER_ALREADY_EXISTS)
+                        : UserImportResult.rejected(importRecord.line(), FAILED, error.getMessage());
+                continue;
+            }
+            User user = users.get(i);
+            insertedUsers.add(user);
+            passwords.add(importRecord.registerDto().password());
+            registrationProgress.add(userValidator.generateRegistrationProgress(user.getUserId(), BASIC_DETAILS_ADDED));
+            securityDetails.add(userValidator.generateSecurityDetails(user.getUserId()));
+        }
+        if (insertedUsers.isEmpty()) {
+            return;
+        }
+
+        try {
+            registrationProgressRepository.insert(registrationProgress);
+            securityDetailsRepository.insert(securityDetails);
+            keyCloakProvisioningService.enqueueAll(insertedUsers, passwords);
+        } catch (RuntimeException e) {
+            removeImported(insertedUsers.stream().map(User::getUserId).toList());
+            throw e;
+        }
+        for (int i = 0; i < users.size(); i++) {
+            if (!failedInserts.containsKey(i)) {
+                results[positions.get(i)] = UserImportResult.created(batch.get(positions.get(i)).line(), users.get(i).getUserId());
+            }
+        }
+    }
+
+    /**
+     * Inserts the users with one unordered bulk write, so a user created concurrently by a single registration
+     * only fails its own insert.
+     *
+     * @return the failed inserts keyed by their position in the given list
+     */
+    private Map<Integer, BulkWriteError> insertUsers(List<User> users) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class).insert(users).execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, BulkWriteError> failedInserts = new HashMap<>();
+            e.getErrors().forEach(error -> failedInserts.put(error.getIndex(), error));
+            return failedInserts;
+        }
+    }
+
+    /**
+     * Compensates a batch that failed after its users were inserted by deleting everything written for them, so a
+     * retried import does not find half-registered users in the way.
+     */
+    private void removeImported(List<String> userIds) {
+        Query query = new Query(Criteria.where(USER_ID).in(userIds));
+        try {
+            mongoTemplate.remove(query, KeyCloakProvisioningTask.class);
+            mongoTemplate.remove(query, SecurityDetails.class);
+            mongoTemplate.remove(query, RegistrationProgress.class);
+            mongoTemplate.remove(query, User.class);
+        } catch (RuntimeException e) {
+            log.error("Failed to remove the users of a failed import batch, remove them manually: {}", userIds, e);
+        }
+    }
+
+    private void write(Writer writer, UserImportResult result, Map<UserImportResult.Status, Long> summary) throws IOException {
+        writer.write(gson.toJson(result));
+        writer.write('\n');
+        summary.merge(result.status(), 1L, Long::sum);
+    }
+}
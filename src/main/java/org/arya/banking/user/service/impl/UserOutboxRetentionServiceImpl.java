@@ -0,0 +1,163 @@
+package org.arya.banking.user.service.impl;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.InsertManyOptions;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.arya.banking.user.outbox.UserOutboxEvent;
+import org.arya.banking.user.service.UserOutboxRetentionService;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.arya.banking.common.model.OutboxStatus.PENDING;
+import static org.arya.banking.user.outbox.UserOutboxEvent.ARCHIVE_COLLECTION;
+import static org.arya.banking.user.outbox.UserOutboxEvent.OUTBOX_STATUS;
+import static org.arya.banking.user.outbox.UserOutboxEvent.PUBLISHED_STATUSES;
+
+/**
+ * Service implementation keeping the {@code user_outbox} collection down to the events still to be published.
+ * <p>
+ * Published events are copied, with their original identifier and an {@code archivedAt} timestamp, into
+ * {@value UserOutboxEvent#ARCHIVE_COLLECTION}, whose TTL index expires them after the configured retention, and
+ * then deleted from the outbox. The event-driven dispatcher archives what it publishes straight away; a periodic
+ * compaction moves whatever the polling publisher marked as published, in small batches with a pause in between
+ * so it does not compete with foreground traffic. Archiving is idempotent, so instances may compact concurrently.
+ * </p>
+ * <p>
+ * The outbox and archive sizes, the pending backlog and the age of the oldest pending event are refreshed every
+ * {@code arya.user.outbox.retention.metrics-interval-ms}, whether or not compaction is enabled, and published as
+ * the {@code arya.user.outbox.documents}, {@code arya.user.outbox.pending} and
+ * {@code arya.user.outbox.pending.oldest.age} gauges.
+ * </p>
+ */
+@Slf4j
+@Service
+public class UserOutboxRetentionServiceImpl implements UserOutboxRetentionService {
+
+    private static final String ARCHIVED_AT = "archivedAt";
+
+    private final MongoTemplate mongoTemplate;
+    private final AtomicLong outboxDocuments = new AtomicLong();
+    private final AtomicLong archiveDocuments = new AtomicLong();
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMillis = new AtomicLong();
+
+    @Value("${arya.user.outbox.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${arya.user.outbox.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${arya.user.outbox.retention.batch-pause-ms:200}")
+    private long batchPauseMs;
+
+    @Value("${arya.user.outbox.retention.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    public UserOutboxRetentionServiceImpl(MongoTemplate mongoTemplate, MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        Gauge.builder("arya.user.outbox.documents", outboxDocuments, AtomicLong::get)
+                .description("Documents in the user outbox collection")
+                .tag("collection", mongoTemplate.getCollectionName(UserOutboxEvent.class))
+                .register(meterRegistry);
+        Gauge.builder("arya.user.outbox.documents", archiveDocuments, AtomicLong::get)
+                .description("Documents in the user outbox archive collection, awaiting TTL expiry")
+                .tag("collection", ARCHIVE_COLLECTION)
+                .register(meterRegistry);
+        Gauge.builder("arya.user.outbox.pending", pendingEvents, AtomicLong::get)
+                .description("User outbox events waiting to be published")
+                .register(meterRegistry);
+        TimeGauge.builder("arya.user.outbox.pending.oldest.age", oldestPendingAgeMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest user outbox event waiting to be published")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Copies the events into the archive and removes them from the outbox.
+     *
+     * @param events published outbox events
+     */
+    @Override
+    public void archive(List<UserOutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Date archivedAt = new Date();
+        List<Document> documents = events.stream().map(event -> {
+            Document document = new Document();
+            mongoTemplate.getConverter().write(event, document);
+            return document.append(ARCHIVED_AT, archivedAt);
+        }).toList();
+        try {
+            mongoTemplate.getCollection(ARCHIVE_COLLECTION).insertMany(documents, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            boolean onlyDuplicates = e.getWriteErrors().stream()
+                    .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY);
+            if (!onlyDuplicates) {
+                throw e;
+            }
+        }
+        List<String> ids = events.stream().map(UserOutboxEvent::getId).toList();
+        mongoTemplate.remove(new Query(Criteria.where("id").in(ids)), UserOutboxEvent.class);
+    }
+
+    /**
+     * Archives published events in paced batches.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${arya.user.outbox.retention.compaction-interval-ms:60000}")
+    public void compact() {
+        if (!enabled) {
+            return;
+        }
+        int archived = 0;
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<UserOutboxEvent> events = mongoTemplate.find(new Query(Criteria.where(OUTBOX_STATUS).in(PUBLISHED_STATUSES))
+                        .with(Sort.by("id")).limit(batchSize), UserOutboxEvent.class);
+                archive(events);
+                archived += events.size();
+                if (events.size() < batchSize) {
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(batchPauseMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (archived > 0) {
+            log.info("Archived {} published user outbox events", archived);
+        }
+    }
+
+    /**
+     * Refreshes the outbox gauges on their own schedule, so they stay current when compaction is disabled.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${arya.user.outbox.retention.metrics-interval-ms:30000}")
+    public void refreshMetrics() {
+        outboxDocuments.set(mongoTemplate.getCollection(mongoTemplate.getCollectionName(UserOutboxEvent.class)).estimatedDocumentCount());
+        archiveDocuments.set(mongoTemplate.getCollection(ARCHIVE_COLLECTION).estimatedDocumentCount());
+        Query pending = new Query(Criteria.where(OUTBOX_STATUS).is(PENDING.name()));
+        pendingEvents.set(mongoTemplate.count(pending, UserOutboxEvent.class));
+        UserOutboxEvent oldest = mongoTemplate.findOne(pending.with(Sort.by("id")).limit(1), UserOutboxEvent.class);
+        oldestPendingAgeMillis.set(null != oldest && ObjectId.isValid(oldest.getId())
+                ? Math.max(0, System.currentTimeMillis() - new ObjectId(oldest.getId()).getDate().getTime())
+                : 0);
+    }
+}
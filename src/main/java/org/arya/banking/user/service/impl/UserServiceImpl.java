@@ -1,32 +1,44 @@
 package org.arya.banking.user.service.impl;
 
-import jakarta.validation.Valid;
+import com.mongodb.MongoException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.arya.banking.common.dto.KeyCloakResponse;
 import org.arya.banking.common.dto.UserResponse;
 import org.arya.banking.common.exception.UserAlreadyExistsException;
 import org.arya.banking.common.exception.UserNotFoundException;
 import org.arya.banking.common.model.*;
+import org.arya.banking.user.cache.UserProfileCache;
+import org.arya.banking.user.constants.UserProfileField;
 import org.arya.banking.user.dto.RegisterDto;
-import org.arya.banking.user.dto.UpdateAddressDto;
+import org.arya.banking.user.dto.UserBatchResponse;
 import org.arya.banking.user.dto.UpdateContactDto;
 import org.arya.banking.user.dto.UserUpdateDto;
-import org.arya.banking.user.external.KeyCloakService;
+import org.arya.banking.user.exception.UserModifiedException;
 import org.arya.banking.user.mapper.UserMapper;
-import org.arya.banking.user.repository.RegistrationProgressRepository;
 import org.arya.banking.user.repository.SecurityDetailsRepository;
 import org.arya.banking.user.repository.UserOutboxEventRepository;
 import org.arya.banking.user.repository.UserRepository;
+import org.arya.banking.user.repository.UserSnapshot;
+import org.arya.banking.user.service.KeyCloakProvisioningService;
 import org.arya.banking.user.service.UserService;
+import org.arya.banking.user.util.UserETagGenerator;
+import org.arya.banking.user.util.UserIdGenerator;
 import org.arya.banking.user.util.UserValidator;
-import org.springframework.http.ResponseEntity;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.arya.banking.common.constants.RegistrationConstants.BASIC_DETAILS_ADDED;
 import static org.arya.banking.common.constants.ResponseCodes.USER_CREATED_201;
@@ -35,7 +47,8 @@ import static org.arya.banking.common.exception.ExceptionCode.USER_ALREADY_EXIST
 import static org.arya.banking.common.exception.ExceptionCode.USER_NOT_FOUND_404;
 import static org.arya.banking.common.exception.ExceptionConstants.CONFLICT_ERROR_CODE;
 import static org.arya.banking.common.exception.ExceptionConstants.NOT_FOUND_ERROR_CODE;
-import static org.arya.banking.common.utils.CommonUtils.generateSHA256hash;
+import static org.arya.banking.user.exception.UserServiceExceptionConstants.PRECONDITION_FAILED_ERROR_CODE;
+import static org.arya.banking.user.exception.UserServiceExceptionConstants.USER_MODIFIED_412;
 
 /**
  * Implementation of the UserService interface for managing user operations.
@@ -51,18 +64,22 @@ import static org.arya.banking.common.utils.CommonUtils.generateSHA256hash;
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final int WRITE_CONFLICT = 112;
+
     private final UserRepository userRepository;
-    private final RegistrationProgressRepository registrationProgressRepository;
     private final SecurityDetailsRepository securityDetailsRepository;
     private final UserMapper userMapper;
-    private final KeyCloakService keyCloakService;
+    private final KeyCloakProvisioningService keyCloakProvisioningService;
     private final UserValidator userValidator;
+    private final UserProfileCache userProfileCache;
+    private final UserIdGenerator userIdGenerator;
 
     /**
      * Registers a new user in the system.
      * <p>
-     * Validates if the user already exists, creates a new user entity, saves it, creates a KeyCloak user,
-     * initializes registration progress and security details, and sends a user creation event.
+     * Validates if the user already exists, creates a new user entity, saves it, initializes registration
+     * progress and security details, and queues the creation of the KeyCloak user. The KeyCloak user is created
+     * in the background once the local documents are committed.
      * </p>
      * @param registerDto DTO containing user registration details
      * @return UserResponse containing the user ID and registration status
@@ -74,40 +91,20 @@ public class UserServiceImpl implements UserService {
         userRepository.findByEmailIdOrPrimaryContactNumber(registerDto.emailId(),
                         registerDto.primaryContactNumber()).ifPresent(user -> { throw new UserAlreadyExistsException(CONFLICT_ERROR_CODE, USER_ALREADY_EXISTS_409, "User already exists"); });
 
-        User user = userMapper.toEntity(registerDto);
-        user.setUserId(generateUserId(registerDto.firstName(), registerDto.lastName()));
-        user.setContactNumbers(List.of(ContactNumber.builder()
-                .contactNumber(registerDto.primaryContactNumber())
-                .type(ContactNumberType.PRIMARY)
-                .isVerified(false).build()));
-
-        user.setStatus(UserStatus.ACTIVE.name());
+        User user = userValidator.generateRegisteredUser(userMapper.toEntity(registerDto), userIdGenerator.generate());
         insertOrUpdateUser(user);
-        KeyCloakUser keyCloakUser = KeyCloakUser.builder().username(user.getUserId())
-                .firstName(user.getFirstName())
-                .lastName(user.getLastName())
-                .emailId(user.getEmailId())
-                .password(registerDto.password()).build();
-
-        ResponseEntity<KeyCloakResponse> response = keyCloakService.createKeyCloakUser(keyCloakUser);
-
-        log.debug("Response from keycloak: {}", response);
-        registrationProgressRepository.save(userValidator.generateRegistrationProgress(user.getUserId(), BASIC_DETAILS_ADDED));
-
-        SecurityDetails securityDetails = SecurityDetails.builder()
-                .userId(user.getUserId())
-                .isContactNumberVerified(false)
-                .isEmailVerified(false)
-                .twoFactorEnabled(false)
-                .loginFailedAttempts(0).build();
-        securityDetailsRepository.save(securityDetails);
-
+        userValidator.saveRegistrationProgress(user.getUserId(), BASIC_DETAILS_ADDED);
+        securityDetailsRepository.save(userValidator.generateSecurityDetails(user.getUserId()));
+        keyCloakProvisioningService.enqueue(user, registerDto.password());
 
         return new UserResponse(user.getUserId(), "User Registered Successfully", USER_CREATED_201);
     }
 
     /**
      * Retrieves a user by their unique user ID.
+     * <p>
+     * Served from the profile cache when possible; the returned instance is shared and must not be modified.
+     * </p>
      *
      * @param userId the unique identifier of the user
      * @return the User entity
@@ -115,128 +112,195 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public User getUserById(String userId) {
-        return userRepository.findByUserId(userId).orElseThrow(() -> new UserNotFoundException(NOT_FOUND_ERROR_CODE, USER_NOT_FOUND_404, "User not present"));
+        return getUserSnapshot(userId).user();
     }
 
     /**
-     * Generates a unique user ID based on first name, last name, and current timestamp.
+     * Retrieves a user together with the version of its document, from which its ETag is derived.
+     * <p>
+     * Both come from the same profile cache entry, or from the same read on a miss, so the ETag always describes
+     * the returned profile, and a conditional request for an unchanged profile does not read the user.
+     * </p>
      *
-     * @param firstName the user's first name
-     * @param lastName the user's last name
-     * @return a unique user ID string
+     * @param userId the unique identifier of the user
+     * @return the user and the version of its document
+     * @throws UserNotFoundException if the user is not found
      */
-    private String generateUserId(String firstName, String lastName) {
-
-        StringBuilder valueToHash = new StringBuilder(firstName);
-        valueToHash.append(lastName).append(System.currentTimeMillis());
-        return "ARYA"+generateSHA256hash(valueToHash.toString()).substring(0, 6).toUpperCase();
+    @Override
+    public UserSnapshot getUserSnapshot(String userId) {
+        return userProfileCache.get(userId, this::findSnapshotByUserId);
     }
 
     /**
-     * Updates user details such as contact number and address.
+     * Retrieves only the requested fields of a user.
      * <p>
-     * Validates and updates contact and address information, updates registration step, and saves the user.
+     * Requests within the summary field set are served from the summary cache; others are served from a cached
+     * full profile when there is one, and otherwise from a projection reading only the requested fields.
      * </p>
+     *
      * @param userId the unique identifier of the user
-     * @param userUpdateDto DTO containing updated user details
-     * @return UserResponse containing the user ID and update status
+     * @param fields the requested fields
+     * @return the requested fields and their values
+     * @throws UserNotFoundException if the user is not found
      */
     @Override
-    public UserResponse updateUser(String userId, UserUpdateDto userUpdateDto) {
-
-        User user = getUserById(userId);
-        if (!userUpdateDto.isLockUser()) {
-            if (null != userUpdateDto.updateContactDto()) {
-                updateContactNumber(user, userUpdateDto.updateContactDto());
-            }
-            if (null != userUpdateDto.updateAddressDto()) {
-                updateAddress(user, userUpdateDto.updateAddressDto());
-            }
-            userValidator.validateAndInvokeUpdateRegistrationStep(user, false, null);
+    public Map<String, Object> getUserFields(String userId, Set<UserProfileField> fields) {
+        User user;
+        if (UserProfileField.SUMMARY.containsAll(fields)) {
+            user = userProfileCache.getSummary(userId, id -> findUserWithFields(id, UserProfileField.SUMMARY));
         } else {
-            user.setStatus(UserStatus.BLOCKED.name());
-            userValidator.insertToUserOutbox(user.getStatus(), userId);
+            UserSnapshot cached = userProfileCache.getIfPresent(userId);
+            user = null != cached ? cached.user() : findUserWithFields(userId, fields);
         }
-        insertOrUpdateUser(user);
-        return new UserResponse(user.getUserId(), "User updated successfully", USER_UPDATED_200);
+        return UserProfileField.select(user, fields);
     }
 
-    private void insertOrUpdateUser(User user) {
-        userRepository.save(user);
+    private User findUserWithFields(String userId, Set<UserProfileField> fields) {
+        return userRepository.findByUserIdWithFields(userId, fields.stream().map(UserProfileField::getFieldName).toList())
+                .orElseThrow(UserServiceImpl::userNotFound);
     }
 
     /**
-     * Updates the address of a user.
+     * Retrieves many users at once.
      * <p>
-     * Removes any existing address of the same type and adds the new address.
+     * Cached profiles are served from the profile cache and all others are loaded with a single query. Unknown
+     * userIds do not fail the request; they are reported as missing.
      * </p>
-     * @param user the User entity to update
-     * @param updateAddressDto DTO containing the new address information
+     *
+     * @param userIds the unique identifiers of the users
+     * @return the found users in request order, without duplicates, and the userIds that were not found
      */
-    private void updateAddress(User user, @Valid UpdateAddressDto updateAddressDto) {
+    @Override
+    public UserBatchResponse getUsersByIds(List<String> userIds) {
+        Set<String> distinctUserIds = new LinkedHashSet<>(userIds);
+        Map<String, UserSnapshot> users = userProfileCache.getAll(distinctUserIds, this::findUsersByIds);
+        return new UserBatchResponse(
+                distinctUserIds.stream().map(users::get).filter(Objects::nonNull).map(UserSnapshot::user).toList(),
+                distinctUserIds.stream().filter(userId -> !users.containsKey(userId)).toList());
+    }
 
-        if(null == user.getAddresss()) {
-            user.setAddresss(new ArrayList<>());
-        }
-        user.getAddresss().removeIf(address -> address.getAddressType().equals(updateAddressDto.address().getAddressType()));
-        user.getAddresss().add(updateAddressDto.address());
+    private Map<String, UserSnapshot> findUsersByIds(Set<? extends String> userIds) {
+        return userRepository.findSnapshotsByUserIdIn(List.copyOf(userIds)).stream()
+                .collect(Collectors.toMap(snapshot -> snapshot.user().getUserId(), Function.identity()));
+    }
+
+    /**
+     * Loads a user and the version of its document directly from the database, bypassing the profile cache.
+     *
+     * @param userId the unique identifier of the user
+     * @return the user and the version of its document
+     * @throws UserNotFoundException if the user is not found
+     */
+    private UserSnapshot findSnapshotByUserId(String userId) {
+        return userRepository.findSnapshotByUserId(userId).orElseThrow(UserServiceImpl::userNotFound);
     }
 
     /**
-     * Updates the contact number of a user.
+     * Updates user details such as contact number and address.
      * <p>
-     * Handles primary and other contact numbers, updating types and verification status as needed.
+     * Contact number, address and lock status are changed with targeted server-side updates of only the affected
+     * fields and array elements, without loading and re-saving the whole document, so concurrent updates cannot
+     * overwrite each other; each of them increments the version of the document. The registration step is then
+     * validated against the updated document.
      * </p>
-     * @param user the User entity to update
-     * @param updateContactDto DTO containing the new contact information
+     * @param userId the unique identifier of the user
+     * @param userUpdateDto DTO containing updated user details
+     * @return UserResponse containing the user ID and update status
+     * @throws UserAlreadyExistsException if the new primary contact number belongs to another user
      */
-    private void updateContactNumber(User user, @Valid UpdateContactDto updateContactDto) {
-
-        Optional<ContactNumber> contactNumber = getExistingContactNumber(user, updateContactDto.contactNumber());
+    @Override
+    public UserResponse updateUser(String userId, UserUpdateDto userUpdateDto) {
+        return updateUser(userId, userUpdateDto, null);
+    }
 
-        if (updateContactDto.isPrimary()) {
+    /**
+     * Updates user details if the profile still matches the ETag the caller last read.
+     * <p>
+     * The ETag is the version of the document, so the update is made conditional on the stored version still being
+     * one of the tags in {@code If-Match}, and is checked by the write itself, not against the cache or an earlier
+     * read; a concurrent write increments the version and makes the update match nothing, which is reported as a
+     * failed precondition instead of the other write being overwritten.
+     * </p>
+     *
+     * @param userId the unique identifier of the user
+     * @param userUpdateDto DTO containing updated user details
+     * @param ifMatch value of the {@code If-Match} header, or null for an unconditional update
+     * @return UserResponse containing the user ID and update status
+     * @throws UserModifiedException with 412 if the profile changed since the caller read it, including when a
+     *         concurrent write conflicts with the update
+     * @throws UserAlreadyExistsException with 409 if the new primary contact number belongs to another user
+     */
+    @Override
+    public UserResponse updateUser(String userId, UserUpdateDto userUpdateDto, String ifMatch) {
 
-            user.getContactNumbers().stream().filter(contact -> contact.getType().equals(ContactNumberType.PRIMARY))
-                    .findFirst()
-                    .ifPresent(contact -> contact.setType(ContactNumberType.OTHERS));
-            user.setPrimaryContactNumber(updateContactDto.contactNumber());
-            if(contactNumber.isPresent() && !ContactNumberType.PRIMARY.equals(contactNumber.get().getType())) {
-                contactNumber.ifPresent(number  -> number.setType(ContactNumberType.PRIMARY));
+        Collection<Long> expected = null == ifMatch || UserETagGenerator.matchesAny(ifMatch) ? null : UserETagGenerator.versions(ifMatch);
+        if (null != expected && expected.isEmpty()) {
+            throw userModified();
+        }
+        try {
+            if (!userUpdateDto.isLockUser()) {
+                UpdateContactDto updateContactDto = userUpdateDto.updateContactDto();
+                Address address = null != userUpdateDto.updateAddressDto() ? userUpdateDto.updateAddressDto().address() : null;
+                User user;
+                if (null == updateContactDto && null == address) {
+                    UserSnapshot snapshot = findSnapshotByUserId(userId);
+                    if (null != expected && !expected.contains(snapshot.version())) {
+                        throw userModified();
+                    }
+                    user = snapshot.user();
+                } else {
+                    user = updateContactNumberAndAddress(userId, updateContactDto, address, expected)
+                            .orElseThrow(() -> null != expected ? userModified() : userNotFound());
+                }
+                userValidator.validateAndInvokeUpdateRegistrationStep(user, false, null);
             } else {
-                addContactNumber(user, updateContactDto.contactNumber(), ContactNumberType.PRIMARY);
+                if (!userRepository.updateStatus(userId, UserStatus.BLOCKED.name(), expected)) {
+                    throw null != expected ? userModified() : userNotFound();
+                }
+                userValidator.insertToUserOutbox(UserStatus.BLOCKED.name(), userId);
             }
-        } else {
-            addContactNumber(user, updateContactDto.contactNumber(), ContactNumberType.OTHERS);
+        } catch (DataAccessException e) {
+            if (null != ifMatch && isWriteConflict(e)) {
+                throw userModified();
+            }
+            throw e;
         }
+        userProfileCache.invalidate(userId);
+        return new UserResponse(userId, "User updated successfully", USER_UPDATED_200);
     }
 
     /**
-     * Retrieves an existing contact number from a user.
-     *
-     * @param user the User entity
-     * @param contactNumber the contact number to search for
-     * @return Optional containing the ContactNumber if found
+     * Tells whether a write failed because a concurrent write changed the same document, which for a conditional
+     * update means the precondition no longer holds.
      */
-    private static Optional<ContactNumber> getExistingContactNumber(User user, String contactNumber) {
-        return user.getContactNumbers().stream()
-                .filter(contact -> contact.getContactNumber().equals(contactNumber))
-                .findFirst();
+    private static boolean isWriteConflict(DataAccessException e) {
+        return e instanceof OptimisticLockingFailureException
+                || (e.getMostSpecificCause() instanceof MongoException mongoException
+                && (WRITE_CONFLICT == mongoException.getCode() || mongoException.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)));
+    }
+
+    private static UserModifiedException userModified() {
+        return new UserModifiedException(PRECONDITION_FAILED_ERROR_CODE, USER_MODIFIED_412, "User was modified since it was read");
     }
 
     /**
-     * Adds a contact number to a user.
-     *
-     * @param user the User entity
-     * @param contactNumber the contact number to add
-     * @param primary the type of contact number (PRIMARY or OTHERS)
+     * Applies the contact number and address update, reporting a primary contact number already owned by another
+     * user as a conflict instead of a server error.
      */
-    private static void addContactNumber(User user, String contactNumber, ContactNumberType primary) {
-        user.getContactNumbers().add(
-                ContactNumber.builder()
-                        .contactNumber(contactNumber)
-                        .isVerified(false)
-                        .type(primary).build()
-        );
+    private Optional<User> updateContactNumberAndAddress(String userId, UpdateContactDto updateContactDto, Address address, Collection<Long> expected) {
+        try {
+            return userRepository.updateContactNumberAndAddress(userId, updateContactDto, address, expected);
+        } catch (DuplicateKeyException e) {
+            throw new UserAlreadyExistsException(CONFLICT_ERROR_CODE, USER_ALREADY_EXISTS_409, "Contact number is already registered to another user");
+        }
+    }
+
+    private static UserNotFoundException userNotFound() {
+        return new UserNotFoundException(NOT_FOUND_ERROR_CODE, USER_NOT_FOUND_404, "User not present");
+    }
+
+    private void insertOrUpdateUser(User user) {
+        userRepository.save(user);
+        userProfileCache.invalidate(user.getUserId());
     }
-    
 }
@@ -0,0 +1,72 @@
+package org.arya.banking.user.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Encrypts passwords that must be persisted until they are handed over to Keycloak.
+ * <p>
+ * Uses AES-GCM with a random IV per value; the key is a base64 encoded 128, 192 or 256 bit key supplied
+ * through Vault. The encrypted form is the base64 encoding of the IV followed by the ciphertext.
+ * </p>
+ */
+@Component
+public class PasswordCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final SecretKeySpec secretKey;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public PasswordCipher(@Value("${arya.user.keycloak-provisioning.encryption-key}") String encryptionKey) {
+        this.secretKey = new SecretKeySpec(Base64.getDecoder().decode(encryptionKey), "AES");
+    }
+
+    /**
+     * Encrypts the given password.
+     *
+     * @param password the plain text password
+     * @return the base64 encoded IV and ciphertext
+     */
+    public String encrypt(String password) {
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte[] cipherText = cipher.doFinal(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(ByteBuffer.allocate(IV_LENGTH + cipherText.length)
+                    .put(iv).put(cipherText).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt password", e);
+        }
+    }
+
+    /**
+     * Decrypts a value produced by {@link #encrypt(String)}.
+     *
+     * @param encryptedPassword the base64 encoded IV and ciphertext
+     * @return the plain text password
+     */
+    public String decrypt(String encryptedPassword) {
+        byte[] value = Base64.getDecoder().decode(encryptedPassword);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, value, 0, IV_LENGTH));
+            return new String(cipher.doFinal(value, IV_LENGTH, value.length - IV_LENGTH), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not decrypt password", e);
+        }
+    }
+}
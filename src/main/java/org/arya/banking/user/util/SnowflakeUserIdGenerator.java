@@ -0,0 +1,101 @@
+package org.arya.banking.user.util;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style {@link UserIdGenerator}.
+ * <p>
+ * Every ID is a 63 bit number made of 41 bits of milliseconds since 2024-01-01T00:00:00Z, a 10 bit node ID and
+ * a 12 bit per-millisecond sequence, encoded as 13 Crockford base32 characters after the {@code ARYA} prefix.
+ * IDs are unique across instances as long as every instance runs with a distinct node ID, and are produced
+ * without locks or coordination: the last timestamp and sequence live in a single {@link AtomicLong}.
+ * </p>
+ * <p>
+ * The node ID comes from {@code arya.user.id.node-id} or, when that is not set, is leased from Mongo through
+ * {@link UserIdNodeLease}. A leased generator stops issuing IDs once its lease lapses.
+ * </p>
+ * <p>
+ * When more than 4096 IDs are requested within one millisecond, or the wall clock moves backwards, the
+ * generator keeps counting from the last issued value and runs slightly ahead of the clock until it catches
+ * up, so it never blocks and never repeats an ID.
+ * </p>
+ */
+@Component
+public class SnowflakeUserIdGenerator implements UserIdGenerator {
+
+    static final long EPOCH = 1704067200000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+    private final UserIdNodeLease nodeLease;
+    private final AtomicLong lastTimestampAndSequence = new AtomicLong();
+
+    @Autowired
+    public SnowflakeUserIdGenerator(@Value("${arya.user.id.node-id:-1}") long nodeId, ObjectProvider<UserIdNodeLease> nodeLease) {
+        this(nodeId < 0 ? nodeLease.getObject() : null, nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeUserIdGenerator(long nodeId, LongSupplier clock) {
+        this(null, nodeId, clock);
+    }
+
+    SnowflakeUserIdGenerator(UserIdNodeLease nodeLease, LongSupplier clock) {
+        this(nodeLease, -1, clock);
+    }
+
+    private SnowflakeUserIdGenerator(UserIdNodeLease nodeLease, long nodeId, LongSupplier clock) {
+        long resolvedNodeId = null != nodeLease ? nodeLease.acquire() : nodeId;
+        if (resolvedNodeId < 0 || resolvedNodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeBits = resolvedNodeId << SEQUENCE_BITS;
+        this.clock = clock;
+        this.nodeLease = nodeLease;
+    }
+
+    @Override
+    public String generate() {
+        long id = nextId();
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Returns the next raw 63 bit ID.
+     *
+     * @return the timestamp, node and sequence packed into a long
+     */
+    long nextId() {
+        while (true) {
+            long current = lastTimestampAndSequence.get();
+            long wallClock = clock.getAsLong();
+            if (null != nodeLease && !nodeLease.isHeld(wallClock)) {
+                throw new IllegalStateException("The lease of the user id node has lapsed, refusing to issue ids");
+            }
+            long now = wallClock - EPOCH;
+            // Incrementing the packed value overflows the sequence into the timestamp, borrowing the next millisecond.
+            long next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            if (lastTimestampAndSequence.compareAndSet(current, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.arya.banking.user.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Derives the ETag of a user profile from the version of its document.
+ * <p>
+ * Every update of a user increments the version, so the tag changes whenever the stored profile does, without
+ * serializing or hashing the profile, and an {@code If-Match} tag can be turned back into the version a
+ * conditional update has to match.
+ * </p>
+ */
+public final class UserETagGenerator {
+
+    private static final String ANY = "*";
+
+    private UserETagGenerator() {
+    }
+
+    /**
+     * Returns the unquoted ETag of the user's profile.
+     *
+     * @param version the version of the user's document
+     * @return the tag
+     */
+    public static String generate(long version) {
+        return Long.toString(version);
+    }
+
+    /**
+     * Tells whether an {@code If-Match} header value holds for any current version, as {@code *} does.
+     *
+     * @param ifMatch the header value: {@code *} or a comma separated list of quoted tags
+     * @return true if the value contains {@code *}
+     */
+    public static boolean matchesAny(String ifMatch) {
+        for (String candidate : ifMatch.split(",")) {
+            if (ANY.equals(candidate.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the versions an {@code If-Match} header value accepts.
+     * <p>
+     * {@code If-Match} uses the strong comparison of RFC 9110: a weak tag never matches, as it only promises an
+     * equivalent representation, not the byte-identical one a conditional update is based on. Tags that were not
+     * issued by {@link #generate(long)} match no version.
+     * </p>
+     *
+     * @param ifMatch a comma separated list of quoted tags
+     * @return the versions of the strong tags in the value, empty if there are none
+     */
+    public static Set<Long> versions(String ifMatch) {
+        Set<Long> versions = new LinkedHashSet<>();
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                try {
+                    versions.add(Long.parseLong(tag.substring(1, tag.length() - 1)));
+                } catch (NumberFormatException e) {
+                    // a tag of another representation, which no version matches
+                }
+            }
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,20 @@
+package org.arya.banking.user.util;
+
+/**
+ * Strategy generating the public identifier of a newly registered user.
+ * <p>
+ * Implementations must return identifiers starting with {@link #PREFIX} that are unique across all running
+ * instances of the service.
+ * </p>
+ */
+public interface UserIdGenerator {
+
+    String PREFIX = "ARYA";
+
+    /**
+     * Generates a new, unique user ID.
+     *
+     * @return the user ID
+     */
+    String generate();
+}
@@ -0,0 +1,142 @@
+package org.arya.banking.user.util;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Leases a Snowflake node ID from Mongo for instances started without {@code arya.user.id.node-id}.
+ * <p>
+ * Every node ID is one document in {@code user_id_nodes}, owned by a single instance until its lease expires.
+ * Acquiring upserts the document only while it is free or expired, so two live instances can never hold the
+ * same node ID; a concurrent claim fails with a duplicate key and moves on to the next candidate. The holder
+ * renews the lease in the background and treats it as valid for only half its length, which leaves the other
+ * half as margin for clock skew between hosts. Once renewals stop succeeding the lease lapses and
+ * {@link SnowflakeUserIdGenerator} refuses to issue IDs instead of risking duplicates.
+ * </p>
+ */
+@Slf4j
+@Component
+public class UserIdNodeLease {
+
+    static final String COLLECTION = "user_id_nodes";
+
+    private static final String ID = "_id";
+    private static final String OWNER = "owner";
+    private static final String EXPIRES_AT = "expiresAt";
+    private static final long MAX_NODE_ID = SnowflakeUserIdGenerator.MAX_NODE_ID;
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration lease;
+    private final String owner;
+    private final String host;
+
+    private volatile long nodeId = -1;
+    private volatile long validUntil;
+
+    public UserIdNodeLease(MongoTemplate mongoTemplate,
+                           @Value("${arya.user.id.node-lease:PT5M}") Duration lease) {
+        this.mongoTemplate = mongoTemplate;
+        this.lease = lease;
+        this.host = hostName();
+        this.owner = host + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID();
+    }
+
+    /**
+     * Leases a free node ID, starting from one derived from the host name and process ID so restarts of the
+     * same instance tend to get the same node back.
+     *
+     * @return the leased node ID
+     * @throws IllegalStateException if every node ID is held by a live instance
+     */
+    public synchronized long acquire() {
+        long preferred = (host + ":" + ProcessHandle.current().pid()).hashCode() & MAX_NODE_ID;
+        for (long attempt = 0; attempt <= MAX_NODE_ID; attempt++) {
+            long candidate = (preferred + attempt) & MAX_NODE_ID;
+            Instant now = Instant.now();
+            Query query = new Query(Criteria.where(ID).is(candidate)
+                    .orOperator(Criteria.where(EXPIRES_AT).lt(Date.from(now)), Criteria.where(OWNER).is(owner)));
+            try {
+                mongoTemplate.upsert(query, new Update().set(OWNER, owner).set(EXPIRES_AT, Date.from(now.plus(lease))), COLLECTION);
+            } catch (DuplicateKeyException e) {
+                continue;
+            }
+            nodeId = candidate;
+            validUntil = now.plus(lease.dividedBy(2)).toEpochMilli();
+            log.info("Leased user id node: {} as {}", candidate, owner);
+            return candidate;
+        }
+        throw new IllegalStateException("All " + (MAX_NODE_ID + 1) + " user id nodes are leased, set arya.user.id.node-id explicitly");
+    }
+
+    /**
+     * Extends the lease of the held node ID. A lease taken over by another instance is dropped at once.
+     */
+    @Scheduled(fixedDelayString = "${arya.user.id.node-lease-renew-interval-ms:60000}")
+    public void renew() {
+        long held = nodeId;
+        if (held < 0) {
+            return;
+        }
+        Instant now = Instant.now();
+        try {
+            long matched = mongoTemplate.updateFirst(new Query(Criteria.where(ID).is(held).and(OWNER).is(owner)),
+                    new Update().set(EXPIRES_AT, Date.from(now.plus(lease))), COLLECTION).getMatchedCount();
+            if (matched > 0) {
+                validUntil = now.plus(lease.dividedBy(2)).toEpochMilli();
+            } else {
+                validUntil = 0;
+                log.error("Lost the lease of user id node: {}, no more user ids are issued by this instance", held);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not renew the lease of user id node: {}, it lapses at {}", held, Instant.ofEpochMilli(validUntil), e);
+        }
+    }
+
+    /**
+     * Returns whether the node ID is still safely held at the given time.
+     *
+     * @param now the current time in epoch milliseconds
+     * @return true while the lease is valid
+     */
+    boolean isHeld(long now) {
+        return now < validUntil;
+    }
+
+    @PreDestroy
+    public void release() {
+        long held = nodeId;
+        if (held < 0) {
+            return;
+        }
+        validUntil = 0;
+        try {
+            mongoTemplate.updateFirst(new Query(Criteria.where(ID).is(held).and(OWNER).is(owner)),
+                    new Update().set(EXPIRES_AT, new Date(0)), COLLECTION);
+        } catch (RuntimeException e) {
+            log.warn("Could not release user id node: {}, it becomes free once the lease expires", held, e);
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
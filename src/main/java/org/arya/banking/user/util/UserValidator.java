@@ -1,21 +1,38 @@
 package org.arya.banking.user.util;
 
 import com.google.gson.Gson;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.arya.banking.common.avro.UserCreateEvent;
 import org.arya.banking.common.constants.RegistrationConstants;
+import org.arya.banking.common.model.ContactNumber;
+import org.arya.banking.common.model.ContactNumberType;
 import org.arya.banking.common.model.RegistrationProgress;
 import org.arya.banking.common.model.SecurityDetails;
 import org.arya.banking.common.model.User;
+import org.arya.banking.common.model.UserStatus;
 import org.arya.banking.common.utils.CommonUtils;
+import org.arya.banking.user.cache.RegistrationState;
+import org.arya.banking.user.cache.RegistrationStateCache;
+import org.arya.banking.user.constants.OutboxPayloadFormat;
+import org.arya.banking.user.outbox.UserAvroOutboxEvent;
+import org.arya.banking.user.outbox.UserEventAvroCodec;
+import org.arya.banking.user.outbox.UserOutboxCoalescer;
+import org.arya.banking.user.outbox.UserOutboxDispatcher;
 import org.arya.banking.user.outbox.UserOutboxEvent;
 import org.arya.banking.user.repository.RegistrationProgressRepository;
+import org.arya.banking.user.repository.UserAvroOutboxEventRepository;
 import org.arya.banking.user.repository.UserOutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.function.Function;
 
 import static org.arya.banking.common.constants.RegistrationConstants.ADD_ADDRESS;
@@ -28,16 +45,27 @@ import static org.arya.banking.user.constants.UserOutboxEventType.USER_INSERT;
  * Utility class for validating user registration steps and progress.
  * <p>
  * Provides methods to validate registration levels, security questions, and to update registration progress.
+ * Every registration step recorded is counted as {@code arya.user.registration.transitions}, tagged by step.
  * </p>
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class UserValidator {
 
     private final RegistrationProgressRepository registrationProgressRepository;
     private final UserOutboxEventRepository userOutboxEventRepository;
+    private final UserAvroOutboxEventRepository userAvroOutboxEventRepository;
+    private final RegistrationStateCache registrationStateCache;
+    private final UserEventAvroCodec userEventAvroCodec;
+    private final UserOutboxDispatcher userOutboxDispatcher;
+    private final UserOutboxCoalescer userOutboxCoalescer;
     private final Gson gson;
+    private final Map<RegistrationConstants, Counter> registrationTransitions = new EnumMap<>(RegistrationConstants.class);
+
+    @Value("${arya.user.outbox.payload-format:JSON}")
+    private OutboxPayloadFormat outboxPayloadFormat;
+
+    private static final String USER_UPDATE_TOPIC = "arya-user-svc-usr-update";
 
     private static final List<Function<User, Object>> FIRST_LEVEL = List.of(
             User::getFirstName,
@@ -51,6 +79,31 @@ public class UserValidator {
 
     private static final List<List<Function<User, Object>>> LEVELS = List.of(FIRST_LEVEL, SECOND_LEVEL);
 
+    public UserValidator(RegistrationProgressRepository registrationProgressRepository,
+                         UserOutboxEventRepository userOutboxEventRepository,
+                         UserAvroOutboxEventRepository userAvroOutboxEventRepository,
+                         RegistrationStateCache registrationStateCache,
+                         UserEventAvroCodec userEventAvroCodec,
+                         UserOutboxDispatcher userOutboxDispatcher,
+                         UserOutboxCoalescer userOutboxCoalescer,
+                         Gson gson,
+                         MeterRegistry meterRegistry) {
+        this.registrationProgressRepository = registrationProgressRepository;
+        this.userOutboxEventRepository = userOutboxEventRepository;
+        this.userAvroOutboxEventRepository = userAvroOutboxEventRepository;
+        this.registrationStateCache = registrationStateCache;
+        this.userEventAvroCodec = userEventAvroCodec;
+        this.userOutboxDispatcher = userOutboxDispatcher;
+        this.userOutboxCoalescer = userOutboxCoalescer;
+        this.gson = gson;
+        for (RegistrationConstants step : RegistrationConstants.values()) {
+            registrationTransitions.put(step, Counter.builder("arya.user.registration.transitions")
+                    .description("Registration steps completed by users")
+                    .tag("step", step.name())
+                    .register(meterRegistry));
+        }
+    }
+
     /**
      * Validates the registration level of a user based on completed fields.
      *
@@ -85,46 +138,71 @@ public class UserValidator {
     /**
      * Updates the registration step for a user based on their registration level.
      * <p>
-     * Determines the registration progress and sends a registration event.
+     * Determines the registration progress and, when the step is newly recorded, sends a registration event.
+     * The cached registration state only spares the write for steps this instance knows are done; the database
+     * decides whether a step is new, so a step recorded by another instance emits no second event.
      * </p>
      * @param user the unique identifier of the user
      * @param registrationLevel the current registration level
+     * @param registrationState the steps the user has already completed
      */
-    private void updateRegistrationStep(User user, int registrationLevel) {
+    private void updateRegistrationStep(User user, int registrationLevel, RegistrationState registrationState) {
         log.info("User Registration Level: {}", registrationLevel);
         String userId = user.getUserId();
-        Optional<RegistrationProgress> registrationProgress = switch (registrationLevel) {
-            case 1 -> validateAndGetRegistrationProgress(userId, BASIC_DETAILS_ADDED);
-            case 2 -> validateAndGetRegistrationProgress(userId, ADD_ADDRESS);
-            case 3 -> validateAndGetRegistrationProgress(userId, SECURITY_CREDENTIALS_ADDED);
-            default -> Optional.empty();
+        RegistrationConstants registrationStep = switch (registrationLevel) {
+            case 1 -> BASIC_DETAILS_ADDED;
+            case 2 -> ADD_ADDRESS;
+            case 3 -> SECURITY_CREDENTIALS_ADDED;
+            default -> null;
         };
-        String status = user.getStatus();
-        if(registrationProgress.isPresent()) {
-            RegistrationProgress progress = registrationProgress.get();
-            registrationProgressRepository.save(progress);
-            status = progress.getSubStatus();
+        if(null != registrationStep && !registrationState.isCompleted(registrationStep)
+                && saveRegistrationProgress(userId, registrationStep)) {
+            insertToUserOutbox(registrationStep.getSubStatus(), userId);
         }
-        insertToUserOutbox(status, userId);
     }
 
+    /**
+     * Writes a user status event to the outbox. Writes for the same user within one transaction, or within the
+     * configured coalescing window, collapse into a single event carrying the latest status.
+     *
+     * @param status the status to announce
+     * @param userId the unique identifier of the user
+     */
     public void insertToUserOutbox(String status, String userId) {
         log.info("Send :{}, user event", status);
-        userOutboxEventRepository.save(getUserOutboxEvent(userId, false, false, status));
+        userOutboxCoalescer.write(userId, () -> writeUserOutboxEvent(status, userId), () -> upsertUserOutboxEvent(status, userId));
     }
 
     /**
-     * Validates and retrieves the registration progress for a user and registration constant.
+     * Persists a user status event in the configured payload format and hands it to the dispatcher for
+     * immediate publishing.
      *
+     * @param status the status to announce
      * @param userId the unique identifier of the user
-     * @param registrationConstants the registration constant
-     * @return Optional containing the registration progress if not already present
      */
-    private Optional<RegistrationProgress> validateAndGetRegistrationProgress(String userId, RegistrationConstants registrationConstants) {
+    private void writeUserOutboxEvent(String status, String userId) {
+        if (OutboxPayloadFormat.AVRO == outboxPayloadFormat) {
+            userOutboxDispatcher.dispatch(userAvroOutboxEventRepository.save(getUserAvroOutboxEvent(userId, false, false, status)));
+        } else {
+            userOutboxDispatcher.dispatch(userOutboxEventRepository.save(getUserOutboxEvent(userId, false, false, status)));
+        }
+    }
 
-        return registrationProgressRepository.findByUserIdAndSubStatus(userId, registrationConstants.getSubStatus())
-                .isEmpty() ? Optional.of(generateRegistrationProgress(userId, registrationConstants))
-                : Optional.empty();
+    /**
+     * Persists a user status event by replacing the payload of the user's pending event, if any, and returns the
+     * hand-off of the stored event to the dispatcher.
+     *
+     * @param status the status to announce
+     * @param userId the unique identifier of the user
+     * @return the dispatch of the stored event
+     */
+    private Runnable upsertUserOutboxEvent(String status, String userId) {
+        if (OutboxPayloadFormat.AVRO == outboxPayloadFormat) {
+            UserAvroOutboxEvent event = userAvroOutboxEventRepository.upsertPending(getUserAvroOutboxEvent(userId, false, false, status));
+            return () -> userOutboxDispatcher.dispatch(event);
+        }
+        UserOutboxEvent event = userOutboxEventRepository.upsertPending(getUserOutboxEvent(userId, false, false, status));
+        return () -> userOutboxDispatcher.dispatch(event);
     }
 
     /**
@@ -138,17 +216,59 @@ public class UserValidator {
      */
     public UserOutboxEvent getUserOutboxEvent(String userId, boolean isContactVerified, boolean isEmailVerified, String status) {
 
-        var userCreateEvent =  UserCreateEvent.newBuilder()
-                .setUserId(userId).setStatus(status)
-                .setIsContactVerified(isContactVerified)
-                .setIsEmailVerified(isEmailVerified).build();
+        var userCreateEvent = getUserCreateEvent(userId, isContactVerified, isEmailVerified, status);
         return UserOutboxEvent.builder()
                 .aggregateId(userId)
                 .eventType(USER_INSERT.name())
-                .outboxStatus(PENDING).topic("arya-user-svc-usr-update")
+                .outboxStatus(PENDING).topic(USER_UPDATE_TOPIC)
                 .payload(gson.toJson(userCreateEvent)).build();
     }
 
+    /**
+     * Creates an outbox event carrying the Avro binary encoding of a UserCreateEvent.
+     *
+     * @param userId the unique identifier of the user
+     * @param isContactVerified whether the contact is verified
+     * @param isEmailVerified whether the email is verified
+     * @param status the registration status
+     * @return UserAvroOutboxEvent object
+     */
+    public UserAvroOutboxEvent getUserAvroOutboxEvent(String userId, boolean isContactVerified, boolean isEmailVerified, String status) {
+
+        var userCreateEvent = getUserCreateEvent(userId, isContactVerified, isEmailVerified, status);
+        return UserAvroOutboxEvent.builder()
+                .aggregateId(userId)
+                .eventType(USER_INSERT.name())
+                .topic(USER_UPDATE_TOPIC)
+                .payload(userEventAvroCodec.encode(userCreateEvent))
+                .schemaFingerprint(UserEventAvroCodec.SCHEMA_FINGERPRINT)
+                .createdAt(Instant.now()).build();
+    }
+
+    private static UserCreateEvent getUserCreateEvent(String userId, boolean isContactVerified, boolean isEmailVerified, String status) {
+        return UserCreateEvent.newBuilder()
+                .setUserId(userId).setStatus(status)
+                .setIsContactVerified(isContactVerified)
+                .setIsEmailVerified(isEmailVerified).build();
+    }
+
+    /**
+     * Persists the registration progress of a completed step unless it is already recorded, and records it in the
+     * user's registration state either way.
+     *
+     * @param userId the unique identifier of the user
+     * @param registrationConstant the completed registration step
+     * @return true if the step was newly recorded
+     */
+    public boolean saveRegistrationProgress(String userId, RegistrationConstants registrationConstant) {
+        boolean inserted = registrationProgressRepository.insertIfAbsent(generateRegistrationProgress(userId, registrationConstant));
+        registrationStateCache.markCompleted(userId, registrationConstant);
+        if (inserted) {
+            incrementAfterCommit(registrationTransitions.get(registrationConstant));
+        }
+        return inserted;
+    }
+
     /**
      * Generates a RegistrationProgress object for a user and registration constant.
      *
@@ -165,35 +285,62 @@ public class UserValidator {
                 .nextStep(registrationConstant.getNextStep()).build();
     }
 
+    /**
+     * Completes a user mapped from a registration request with its identifier, primary contact number and status.
+     *
+     * @param user the user mapped from the registration request
+     * @param userId the generated unique identifier of the user
+     * @return the same user, ready to be inserted
+     */
+    public User generateRegisteredUser(User user, String userId) {
+        user.setUserId(userId);
+        user.setContactNumbers(List.of(ContactNumber.builder()
+                .contactNumber(user.getPrimaryContactNumber())
+                .type(ContactNumberType.PRIMARY)
+                .isVerified(false).build()));
+        user.setStatus(UserStatus.ACTIVE.name());
+        return user;
+    }
+
+    /**
+     * Generates the initial SecurityDetails of a newly registered user.
+     *
+     * @param userId the unique identifier of the user
+     * @return SecurityDetails object
+     */
+    public SecurityDetails generateSecurityDetails(String userId) {
+        return SecurityDetails.builder()
+                .userId(userId)
+                .isContactNumberVerified(false)
+                .isEmailVerified(false)
+                .twoFactorEnabled(false)
+                .loginFailedAttempts(0).build();
+    }
+
     /**
      * Validates and invokes update of registration step for a user.
+     * <p>
+     * The completed steps are read once from the cached registration state; a completed registration
+     * short-circuits without touching the database.
+     * </p>
      *
      * @param user the user object
      * @param isSecurityDetailsUpdate flag indicating if security details are being updated
      * @param securityDetails the security details object
      */
     public void validateAndInvokeUpdateRegistrationStep(User user, boolean isSecurityDetailsUpdate, SecurityDetails securityDetails) {
-        if(!validateFinalRegistrationStep(user.getUserId())) {
+        RegistrationState registrationState = registrationStateCache.get(user.getUserId());
+        if(!registrationState.complete()) {
             int level = validateRegistrationLevel(user);
             if(isSecurityDetailsUpdate) {
                 if(validateSecurityQuestionsSet(securityDetails)) {
                     level++;
                 }
             }
-            updateRegistrationStep(user, level);
+            updateRegistrationStep(user, level, registrationState);
         }
     }
 
-    /**
-     * Validates if the final registration step is completed for a user.
-     *
-     * @param userId the unique identifier of the user
-     * @return true if registration is complete, false otherwise
-     */
-    private boolean validateFinalRegistrationStep(String userId) {
-        return registrationProgressRepository.findByUserIdAndStatus(userId, "REGISTRATION_COMPLETE").isPresent();
-    }
-
     /**
      * Validates if security questions are set in the SecurityDetails object.
      *
@@ -205,4 +352,21 @@ public class UserValidator {
                 .map(f -> f.apply(securityDetails))
                 .allMatch(CommonUtils::isNotEmpty);
     }
+
+    /**
+     * Counts a registration step after commit, the same point {@link RegistrationStateCache#markCompleted} records
+     * it at.
+     */
+    private static void incrementAfterCommit(Counter counter) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter.increment();
+                }
+            });
+        } else {
+            counter.increment();
+        }
+    }
 }
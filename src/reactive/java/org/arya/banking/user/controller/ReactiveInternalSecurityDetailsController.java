@@ -0,0 +1,58 @@
+package org.arya.banking.user.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.arya.banking.user.dto.LoginAttemptDto;
+import org.arya.banking.user.dto.UpdateSecurityDetailsDto;
+import org.arya.banking.user.service.ReactiveSecurityDetailsService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequestMapping("/internal/api/security-details")
+@RequiredArgsConstructor
+@Tag(name = "Internal Security", description = "Internal service-to-service endpoints for security credential updates (login attempt tracking)")
+public class ReactiveInternalSecurityDetailsController {
+
+    private final ReactiveSecurityDetailsService reactiveSecurityDetailsService;
+
+    @PutMapping("/{userId}")
+    @Operation(summary = "Track login attempt", description = "Internally updates the login failure count for a user. Called by the auth-service after a failed authentication attempt.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Login attempt recorded"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public Mono<ResponseEntity<Map<String, String>>> updateLoginAttempts(
+            @Parameter(description = "Unique user identifier") @PathVariable String userId,
+            @Parameter(description = "Whether the login attempt failed") @RequestParam boolean loginFailed) {
+        log.info("Received login failed event");
+        UpdateSecurityDetailsDto updateSecurityDetailsDto = new UpdateSecurityDetailsDto(null, loginFailed);
+        return reactiveSecurityDetailsService.updateSecurityCredentials(userId, updateSecurityDetailsDto).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/login-attempts")
+    @Operation(summary = "Track login attempts in bulk", description = "Internally records many login attempts at once. Attempts are coalesced per user and applied with a single bulk write; the response holds one entry per user with the same lockout decision as the single-attempt endpoint.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Login attempts recorded"),
+            @ApiResponse(responseCode = "400", description = "Validation failed")
+    })
+    public Mono<ResponseEntity<List<Map<String, String>>>> updateLoginAttemptsInBulk(
+            @Valid @RequestBody @NotEmpty List<@Valid LoginAttemptDto> loginAttempts) {
+        log.info("Received {} login attempt events", loginAttempts.size());
+        return reactiveSecurityDetailsService.updateLoginAttempts(loginAttempts).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,96 @@
+package org.arya.banking.user.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.arya.banking.common.dto.UserResponse;
+import org.arya.banking.user.dto.RegisterDto;
+import org.arya.banking.user.dto.UserBatchRequest;
+import org.arya.banking.user.dto.UserBatchResponse;
+import org.arya.banking.user.dto.UserFieldsRequest;
+import org.arya.banking.user.dto.UserUpdateDto;
+import org.arya.banking.user.service.ReactiveUserService;
+import org.arya.banking.user.util.UserETagGenerator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux variant of {@link UserController} with the same paths and contracts. The NDJSON import is only offered
+ * by the servlet stack.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/users")
+@RequiredArgsConstructor
+@Tag(name = "Users", description = "User management endpoints for registration, retrieval, and profile updates")
+public class ReactiveUserController {
+
+    private final ReactiveUserService reactiveUserService;
+
+    @PostMapping("/register")
+    @Operation(summary = "Register a new user", description = "Creates a new user account. Registers the user in both the local database and Keycloak. The password must be at least 15 characters with uppercase, lowercase, digit, and special character.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "User registered successfully"),
+            @ApiResponse(responseCode = "400", description = "Validation failed on input fields")
+    })
+    public Mono<ResponseEntity<UserResponse>> registerUserEntity(@Valid @RequestBody RegisterDto registerDto) {
+        return reactiveUserService.register(registerDto).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/{userId}")
+    @Operation(summary = "Get user by ID", description = "Retrieves the full user profile including contact numbers, addresses, and account status, with an ETag; a matching If-None-Match returns 304 without a body. With the fields parameter only the listed fields are read and returned.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "User found"),
+            @ApiResponse(responseCode = "304", description = "User not modified since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Unknown field requested"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public Mono<ResponseEntity<Object>> getUserById(
+            @Parameter(description = "Unique user identifier") @PathVariable String userId,
+            @Valid UserFieldsRequest userFieldsRequest,
+            ServerWebExchange exchange) {
+        if (userFieldsRequest.isEmpty()) {
+            return reactiveUserService.getUserSnapshot(userId).map(user -> {
+                String eTag = UserETagGenerator.generate(user.version());
+                return exchange.checkNotModified(eTag)
+                        ? ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<Object>build()
+                        : ResponseEntity.ok().eTag(eTag).<Object>body(user.user());
+            });
+        }
+        return reactiveUserService.getUserFields(userId, userFieldsRequest.profileFields()).map(ResponseEntity::ok);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Get users by IDs", description = "Retrieves the profiles of up to 1000 users in one call. Unknown user IDs do not fail the request and are listed as missing.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Lookup processed; found users and missing IDs"),
+            @ApiResponse(responseCode = "400", description = "Validation failed")
+    })
+    public Mono<ResponseEntity<UserBatchResponse>> getUsersByIds(@Valid @RequestBody UserBatchRequest userBatchRequest) {
+        return reactiveUserService.getUsersByIds(userBatchRequest.userIds()).map(ResponseEntity::ok);
+    }
+
+    @PutMapping("/{userId}")
+    @Operation(summary = "Update user details", description = "Updates user profile information including contact details, address, and lock status. With If-Match the update only applies if the profile still has one of the given ETags.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "User updated successfully"),
+            @ApiResponse(responseCode = "400", description = "Validation failed"),
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "412", description = "User was modified since the ETag in If-Match")
+    })
+    public Mono<ResponseEntity<UserResponse>> updateUser(
+            @Parameter(description = "Unique user identifier") @PathVariable String userId,
+            @Parameter(description = "ETag of the profile the update is based on") @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UserUpdateDto userUpdateDto) {
+        return reactiveUserService.updateUser(userId, userUpdateDto, ifMatch).map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,18 @@
+package org.arya.banking.user.repository;
+
+import org.arya.banking.common.model.User;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the {@link UserRepository} queries served on the request path of the reactive build.
+ * The queries use the same indexes as their blocking versions.
+ */
+@Repository
+@Profile("reactive")
+public interface ReactiveUserRepository extends ReactiveMongoRepository<User, String> {
+
+    Mono<Boolean> existsByEmailIdOrPrimaryContactNumber(String emailId, String contactNumber);
+}
@@ -0,0 +1,15 @@
+package org.arya.banking.user.service;
+
+import org.arya.banking.user.dto.LoginAttemptDto;
+import org.arya.banking.user.dto.UpdateSecurityDetailsDto;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ReactiveSecurityDetailsService {
+
+    Mono<Map<String, String>> updateSecurityCredentials(String userId, UpdateSecurityDetailsDto updateSecurityDetailsDto);
+
+    Mono<List<Map<String, String>>> updateLoginAttempts(List<LoginAttemptDto> loginAttempts);
+}
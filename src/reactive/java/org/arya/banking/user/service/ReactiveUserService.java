@@ -0,0 +1,29 @@
+package org.arya.banking.user.service;
+
+import org.arya.banking.common.dto.UserResponse;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.constants.UserProfileField;
+import org.arya.banking.user.dto.RegisterDto;
+import org.arya.banking.user.dto.UserBatchResponse;
+import org.arya.banking.user.dto.UserUpdateDto;
+import org.arya.banking.user.repository.UserSnapshot;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface ReactiveUserService {
+
+    Mono<UserResponse> register(RegisterDto registerDto);
+
+    Mono<User> getUserById(String userId);
+
+    Mono<UserSnapshot> getUserSnapshot(String userId);
+
+    Mono<Map<String, Object>> getUserFields(String userId, Set<UserProfileField> fields);
+
+    Mono<UserBatchResponse> getUsersByIds(List<String> userIds);
+
+    Mono<UserResponse> updateUser(String userId, UserUpdateDto userUpdateDto, String ifMatch);
+}
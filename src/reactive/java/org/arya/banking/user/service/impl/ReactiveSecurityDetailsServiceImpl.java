@@ -0,0 +1,42 @@
+package org.arya.banking.user.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.arya.banking.user.dto.LoginAttemptDto;
+import org.arya.banking.user.dto.UpdateSecurityDetailsDto;
+import org.arya.banking.user.service.ReactiveSecurityDetailsService;
+import org.arya.banking.user.service.SecurityDetailsService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves the security details operations of the reactive build.
+ * <p>
+ * Every operation updates the security details and, on lockout, the user and its outbox event in one Mongo
+ * transaction, so it is delegated to the transactional {@link SecurityDetailsService} on the bounded elastic
+ * scheduler instead of blocking the event loop.
+ * </p>
+ */
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveSecurityDetailsServiceImpl implements ReactiveSecurityDetailsService {
+
+    private final SecurityDetailsService securityDetailsService;
+
+    @Override
+    public Mono<Map<String, String>> updateSecurityCredentials(String userId, UpdateSecurityDetailsDto updateSecurityDetailsDto) {
+        return Mono.fromCallable(() -> securityDetailsService.updateSecurityCredentials(userId, updateSecurityDetailsDto))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<List<Map<String, String>>> updateLoginAttempts(List<LoginAttemptDto> loginAttempts) {
+        return Mono.fromCallable(() -> securityDetailsService.updateLoginAttempts(loginAttempts))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
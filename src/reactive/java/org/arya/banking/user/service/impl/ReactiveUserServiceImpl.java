@@ -0,0 +1,251 @@
+package org.arya.banking.user.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.arya.banking.common.dto.UserResponse;
+import org.arya.banking.common.exception.UserAlreadyExistsException;
+import org.arya.banking.common.exception.UserNotFoundException;
+import org.arya.banking.common.model.RegistrationProgress;
+import org.arya.banking.common.model.SecurityDetails;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.cache.RegistrationStateCache;
+import org.arya.banking.user.cache.UserProfileCache;
+import org.arya.banking.user.constants.UserProfileField;
+import org.arya.banking.user.dto.RegisterDto;
+import org.arya.banking.user.dto.UserBatchResponse;
+import org.arya.banking.user.dto.UserUpdateDto;
+import org.arya.banking.user.mapper.UserMapper;
+import org.arya.banking.user.outbox.KeyCloakProvisioningTask;
+import org.arya.banking.user.repository.ReactiveUserRepository;
+import org.arya.banking.user.repository.UserSnapshot;
+import org.arya.banking.user.service.KeyCloakProvisioningService;
+import org.arya.banking.user.service.ReactiveUserService;
+import org.arya.banking.user.service.UserService;
+import org.arya.banking.user.util.UserIdGenerator;
+import org.arya.banking.user.util.UserValidator;
+import org.bson.Document;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.arya.banking.common.constants.RegistrationConstants.BASIC_DETAILS_ADDED;
+import static org.arya.banking.common.constants.ResponseCodes.USER_CREATED_201;
+import static org.arya.banking.common.exception.ExceptionCode.USER_ALREADY_EXISTS_409;
+import static org.arya.banking.common.exception.ExceptionCode.USER_NOT_FOUND_404;
+import static org.arya.banking.common.exception.ExceptionConstants.CONFLICT_ERROR_CODE;
+import static org.arya.banking.common.exception.ExceptionConstants.NOT_FOUND_ERROR_CODE;
+
+/**
+ * Non-blocking implementation of the user operations served by the reactive build.
+ * <p>
+ * Registration and profile reads never block a request thread: they are served from the same profile cache as the
+ * servlet stack and otherwise go through the reactive Mongo driver. Updates write the user and its outbox event in
+ * one Mongo transaction through {@link UserService}; they run on the bounded elastic scheduler so the event loop is
+ * not blocked while the transaction runs.
+ * </p>
+ * <p>
+ * Registration is not transactional here, as no reactive Mongo transaction manager is configured; when a write
+ * after the user insert fails, everything already written for the user is deleted again, and the unique indexes on
+ * emailId and primaryContactNumber still reject duplicate users.
+ * </p>
+ * <p>
+ * Profiles read from the reactive repository are only cached if the user was not invalidated while they were
+ * read, so a read racing an update cannot put the pre-update profile back into the cache.
+ * </p>
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserServiceImpl implements ReactiveUserService {
+
+    private static final String USER_ID = "userId";
+
+    private final ReactiveUserRepository reactiveUserRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final UserService userService;
+    private final UserMapper userMapper;
+    private final UserValidator userValidator;
+    private final UserIdGenerator userIdGenerator;
+    private final UserProfileCache userProfileCache;
+    private final RegistrationStateCache registrationStateCache;
+    private final KeyCloakProvisioningService keyCloakProvisioningService;
+
+    /**
+     * Registers a new user in the system.
+     * <p>
+     * Inserts the user, then its registration progress and security details concurrently, and queues the creation
+     * of the KeyCloak user, which is written to Mongo on the bounded elastic scheduler and created in the background.
+     * If any write after the user insert fails, the user and everything written for it are deleted before the
+     * error is returned.
+     * </p>
+     *
+     * @param registerDto DTO containing user registration details
+     * @return UserResponse containing the user ID and registration status
+     */
+    @Override
+    public Mono<UserResponse> register(RegisterDto registerDto) {
+        return reactiveUserRepository.existsByEmailIdOrPrimaryContactNumber(registerDto.emailId(), registerDto.primaryContactNumber())
+                .flatMap(exists -> {
+                    if (Boolean.TRUE.equals(exists)) {
+                        return Mono.error(new UserAlreadyExistsException(CONFLICT_ERROR_CODE, USER_ALREADY_EXISTS_409, "User already exists"));
+                    }
+                    User user = userValidator.generateRegisteredUser(userMapper.toEntity(registerDto), userIdGenerator.generate());
+                    String userId = user.getUserId();
+                    return reactiveUserRepository.insert(user)
+                            .then(Mono.when(
+                                            reactiveMongoTemplate.insert(userValidator.generateRegistrationProgress(userId, BASIC_DETAILS_ADDED)),
+                                            reactiveMongoTemplate.insert(userValidator.generateSecurityDetails(userId)))
+                                    .then(Mono.fromRunnable(() -> keyCloakProvisioningService.enqueue(user, registerDto.password()))
+                                            .subscribeOn(Schedulers.boundedElastic()))
+                                    .onErrorResume(e -> removeRegistered(userId).then(Mono.<Void>error(e))))
+                            .doOnSuccess(ignored -> registrationStateCache.markCompleted(userId, BASIC_DETAILS_ADDED))
+                            .thenReturn(new UserResponse(userId, "User Registered Successfully", USER_CREATED_201));
+                });
+    }
+
+    /**
+     * Deletes everything written for a user whose registration failed part way through. A failure here is only
+     * logged, so the caller still sees the error that failed the registration.
+     */
+    private Mono<Void> removeRegistered(String userId) {
+        Query query = new Query(Criteria.where(USER_ID).is(userId));
+        return Mono.when(
+                        reactiveMongoTemplate.remove(query, KeyCloakProvisioningTask.class),
+                        reactiveMongoTemplate.remove(query, SecurityDetails.class),
+                        reactiveMongoTemplate.remove(query, RegistrationProgress.class))
+                .then(reactiveMongoTemplate.remove(query, User.class))
+                .then()
+                .onErrorResume(e -> {
+                    log.error("Failed to remove user: {} after its registration failed, remove it manually", userId, e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Retrieves a user by their unique user ID, from the profile cache when possible.
+     *
+     * @param userId the unique identifier of the user
+     * @return the User entity, or a {@link UserNotFoundException} error if the user is not found
+     */
+    @Override
+    public Mono<User> getUserById(String userId) {
+        return getUserSnapshot(userId).map(UserSnapshot::user);
+    }
+
+    /**
+     * Retrieves a user together with the version of its document, from which its ETag is derived. Both come from
+     * the profile cache shared with the servlet stack, or from the same read on a miss, so the ETag always
+     * describes the returned profile.
+     *
+     * @param userId the unique identifier of the user
+     * @return the user and the version of its document, or a {@link UserNotFoundException} error if the user is
+     *         not found
+     */
+    @Override
+    public Mono<UserSnapshot> getUserSnapshot(String userId) {
+        UserSnapshot cached = userProfileCache.getIfPresent(userId);
+        if (null != cached) {
+            return Mono.just(cached);
+        }
+        return Mono.defer(() -> {
+            long stamp = userProfileCache.invalidationStamp(userId);
+            return reactiveMongoTemplate.findOne(new Query(Criteria.where(USER_ID).is(userId)), Document.class, reactiveMongoTemplate.getCollectionName(User.class))
+                    .map(this::toSnapshot)
+                    .switchIfEmpty(Mono.error(ReactiveUserServiceImpl::userNotFound))
+                    .doOnNext(snapshot -> userProfileCache.put(userId, snapshot, stamp));
+        });
+    }
+
+    private UserSnapshot toSnapshot(Document document) {
+        return UserSnapshot.read(reactiveMongoTemplate.getConverter(), document);
+    }
+
+    /**
+     * Retrieves only the requested fields of a user. A cached full profile is used when there is one; projections
+     * and the summary cache are served by {@link UserService} on the bounded elastic scheduler.
+     *
+     * @param userId the unique identifier of the user
+     * @param fields the requested fields
+     * @return the requested fields and their values
+     */
+    @Override
+    public Mono<Map<String, Object>> getUserFields(String userId, Set<UserProfileField> fields) {
+        UserSnapshot cached = userProfileCache.getIfPresent(userId);
+        if (null != cached) {
+            return Mono.just(UserProfileField.select(cached.user(), fields));
+        }
+        return Mono.fromCallable(() -> userService.getUserFields(userId, fields))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Retrieves many users at once. Cached profiles are served from the profile cache and all others are loaded
+     * with a single query and cached.
+     *
+     * @param userIds the unique identifiers of the users
+     * @return the found users in request order, without duplicates, and the userIds that were not found
+     */
+    @Override
+    public Mono<UserBatchResponse> getUsersByIds(List<String> userIds) {
+        Set<String> distinctUserIds = new LinkedHashSet<>(userIds);
+        Map<String, User> users = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String userId : distinctUserIds) {
+            UserSnapshot cached = userProfileCache.getIfPresent(userId);
+            if (null != cached) {
+                users.put(userId, cached.user());
+            } else {
+                misses.add(userId);
+            }
+        }
+
+        Map<String, Long> stamps = new HashMap<>();
+        misses.forEach(userId -> stamps.put(userId, userProfileCache.invalidationStamp(userId)));
+        Mono<Map<String, User>> loaded = misses.isEmpty()
+                ? Mono.just(users)
+                : reactiveMongoTemplate.find(new Query(Criteria.where(USER_ID).in(misses)), Document.class, reactiveMongoTemplate.getCollectionName(User.class))
+                        .map(this::toSnapshot)
+                        .doOnNext(snapshot -> userProfileCache.put(snapshot.user().getUserId(), snapshot, stamps.get(snapshot.user().getUserId())))
+                        .map(UserSnapshot::user)
+                        .collectMap(User::getUserId)
+                        .map(found -> {
+                            users.putAll(found);
+                            return users;
+                        });
+        return loaded.map(found -> new UserBatchResponse(
+                distinctUserIds.stream().map(found::get).filter(Objects::nonNull).toList(),
+                distinctUserIds.stream().filter(userId -> !found.containsKey(userId)).toList()));
+    }
+
+    /**
+     * Updates user details through the transactional {@link UserService#updateUser(String, UserUpdateDto, String)}
+     * on the bounded elastic scheduler.
+     *
+     * @param userId the unique identifier of the user
+     * @param userUpdateDto DTO containing updated user details
+     * @param ifMatch value of the {@code If-Match} header, or null for an unconditional update
+     * @return UserResponse containing the user ID and update status
+     */
+    @Override
+    public Mono<UserResponse> updateUser(String userId, UserUpdateDto userUpdateDto, String ifMatch) {
+        return Mono.fromCallable(() -> userService.updateUser(userId, userUpdateDto, ifMatch))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static UserNotFoundException userNotFound() {
+        return new UserNotFoundException(NOT_FOUND_ERROR_CODE, USER_NOT_FOUND_404, "User not present");
+    }
+}
@@ -0,0 +1,145 @@
+package org.arya.banking.user.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClientCredentialsTokenHolderTest {
+
+    private static final String REGISTRATION_ID = "user-service";
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    private static final ClientRegistration REGISTRATION = ClientRegistration.withRegistrationId(REGISTRATION_ID)
+            .clientId(REGISTRATION_ID)
+            .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+            .tokenUri("http://localhost/token")
+            .build();
+
+    private final OAuth2AuthorizedClientManager authorizedClientManager = mock(OAuth2AuthorizedClientManager.class);
+    private final ScheduledExecutorService refresher = mock(ScheduledExecutorService.class);
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ClientCredentialsTokenHolder tokenHolder;
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            scheduled.add(invocation.getArgument(0));
+            delays.add(invocation.getArgument(1));
+            return mock(ScheduledFuture.class);
+        }).when(refresher).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS));
+        tokenHolder = new ClientCredentialsTokenHolder(authorizedClientManager, mock(OAuth2AuthorizedClientService.class),
+                meterRegistry, refresher);
+        ReflectionTestUtils.setField(tokenHolder, "clientRegistrationId", REGISTRATION_ID);
+        ReflectionTestUtils.setField(tokenHolder, "refreshAhead", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(tokenHolder, "minValidity", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(tokenHolder, "retryDelay", RETRY_DELAY);
+    }
+
+    @Test
+    void concurrentCallersShareOneFetch() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(authorizedClientManager.authorize(any())).thenAnswer(invocation -> {
+            fetching.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return authorizedClient("token-1", Duration.ofHours(1));
+        });
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> tokens = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                tokens.add(executor.submit(() -> {
+                    start.await();
+                    return tokenHolder.getTokenValue();
+                }));
+            }
+            start.countDown();
+            assertTrue(fetching.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> token : tokens) {
+                assertEquals("token-1", token.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(authorizedClientManager, times(1)).authorize(any());
+        assertEquals(1, onDemandRefreshes());
+    }
+
+    @Test
+    void failedBackgroundRefreshIsRetriedAfterRetryDelay() {
+        when(authorizedClientManager.authorize(any()))
+                .thenReturn(authorizedClient("token-1", Duration.ofHours(1)))
+                .thenThrow(new IllegalStateException("token endpoint unavailable"));
+        assertEquals("token-1", tokenHolder.getTokenValue());
+        assertEquals(1, scheduled.size());
+        assertTrue(delays.get(0) > RETRY_DELAY.toMillis());
+
+        scheduled.get(0).run();
+
+        assertEquals(2, scheduled.size());
+        assertEquals(RETRY_DELAY.toMillis(), delays.get(1));
+        assertEquals("token-1", tokenHolder.getTokenValue());
+        verify(authorizedClientManager, times(2)).authorize(any());
+    }
+
+    @Test
+    void expiredTokenIsFetchedOnDemand() {
+        when(authorizedClientManager.authorize(any()))
+                .thenReturn(authorizedClient("token-2", Duration.ofHours(1)));
+        ReflectionTestUtils.setField(tokenHolder, "accessToken", accessToken("token-1", Duration.ofSeconds(1)));
+
+        assertEquals("token-2", tokenHolder.getTokenValue());
+        assertEquals("token-2", tokenHolder.getTokenValue());
+        verify(authorizedClientManager, times(1)).authorize(any());
+        assertEquals(1, onDemandRefreshes());
+    }
+
+    private double onDemandRefreshes() {
+        return meterRegistry.get("arya.user.oauth2.token.refresh").tag("trigger", "on-demand").counter().count();
+    }
+
+    private static OAuth2AuthorizedClient authorizedClient(String tokenValue, Duration validity) {
+        return new OAuth2AuthorizedClient(REGISTRATION, REGISTRATION_ID, accessToken(tokenValue, validity));
+    }
+
+    private static OAuth2AccessToken accessToken(String tokenValue, Duration validity) {
+        Instant issuedAt = Instant.now();
+        return new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, tokenValue, issuedAt, issuedAt.plus(validity));
+    }
+}
@@ -0,0 +1,28 @@
+package org.arya.banking.user.constants;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserProfileFieldTest {
+
+    private static final Pattern FIELD_NAMES = Pattern.compile(UserProfileField.FIELD_NAMES);
+
+    @Test
+    void fieldNamePatternMatchesEveryFieldName() {
+        assertEquals(UserProfileField.values().length, UserProfileField.FIELD_NAMES.split("\\|").length);
+        Arrays.stream(UserProfileField.values())
+                .forEach(field -> assertTrue(FIELD_NAMES.matcher(field.getFieldName()).matches(), field.getFieldName()));
+    }
+
+    @Test
+    void fieldNamePatternRejectsOtherNames() {
+        assertFalse(FIELD_NAMES.matcher("password").matches());
+        assertFalse(FIELD_NAMES.matcher("userIdx").matches());
+    }
+}
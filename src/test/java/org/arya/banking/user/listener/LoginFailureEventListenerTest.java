@@ -0,0 +1,114 @@
+package org.arya.banking.user.listener;
+
+import com.google.gson.Gson;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.arya.banking.user.config.LoginEventKafkaConfig;
+import org.arya.banking.user.service.SecurityDetailsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringJUnitConfig(LoginFailureEventListenerTest.TestConfig.class)
+@EmbeddedKafka(partitions = 2, topics = {LoginFailureEventListenerTest.TOPIC, LoginFailureEventListenerTest.DEAD_LETTER_TOPIC})
+@TestPropertySource(properties = {
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.kafka.consumer.auto-offset-reset=earliest",
+        "arya.user.login-events.enabled=true",
+        "arya.user.login-events.topic=" + LoginFailureEventListenerTest.TOPIC,
+        "arya.user.login-events.group-id=login-failure-event-listener-test",
+        "arya.user.login-events.concurrency=1",
+        "arya.user.login-events.retry.interval=10",
+        "arya.user.login-events.retry.max-attempts=1"
+})
+class LoginFailureEventListenerTest {
+
+    static final String TOPIC = "login-attempts-test";
+    static final String DEAD_LETTER_TOPIC = TOPIC + ".DLT";
+
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+    @MockitoBean
+    private SecurityDetailsService securityDetailsService;
+
+    @Test
+    void redeliveredBatchCarriesTheSamePartitionOffsets() {
+        when(securityDetailsService.updateLoginAttempts(anyList(), eq("partition-0"), anyMap()))
+                .thenThrow(new IllegalStateException("Mongo unavailable"))
+                .thenReturn(List.of());
+
+        send(0, "retried-user", "{\"userId\":\"retried-user\",\"loginFailed\":true}");
+
+        verify(securityDetailsService, timeout(10_000).times(2))
+                .updateLoginAttempts(anyList(), eq("partition-0"), eq(Map.of("retried-user", 0L)));
+    }
+
+    @Test
+    void exhaustedRecordIsPublishedToTheDeadLetterTopic() {
+        when(securityDetailsService.updateLoginAttempts(anyList(), eq("partition-1"), anyMap()))
+                .thenThrow(new IllegalStateException("Mongo unavailable"));
+
+        send(1, "poisoned-user", "{\"userId\":\"poisoned-user\",\"loginFailed\":true}");
+
+        Map<String, Object> consumerProperties = KafkaTestUtils.consumerProps("login-failure-dlt-test", "false", embeddedKafka);
+        consumerProperties.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        try (Consumer<String, String> consumer = new DefaultKafkaConsumerFactory<>(consumerProperties,
+                new StringDeserializer(), new StringDeserializer()).createConsumer()) {
+            embeddedKafka.consumeFromAnEmbeddedTopic(consumer, DEAD_LETTER_TOPIC);
+            ConsumerRecord<String, String> deadLetter = KafkaTestUtils.getSingleRecord(consumer, DEAD_LETTER_TOPIC, Duration.ofSeconds(10));
+            assertEquals("poisoned-user", deadLetter.key());
+            assertEquals(1, deadLetter.partition());
+        }
+    }
+
+    private void send(int partition, String key, String value) {
+        Map<String, Object> producerProperties = KafkaTestUtils.producerProps(embeddedKafka);
+        DefaultKafkaProducerFactory<String, String> producerFactory = new DefaultKafkaProducerFactory<>(producerProperties,
+                new StringSerializer(), new StringSerializer());
+        try {
+            new KafkaTemplate<>(producerFactory).send(TOPIC, partition, key, value).join();
+        } finally {
+            producerFactory.destroy();
+        }
+    }
+
+    @Configuration
+    @ImportAutoConfiguration(KafkaAutoConfiguration.class)
+    @Import({LoginEventKafkaConfig.class, LoginFailureEventListener.class})
+    static class TestConfig {
+
+        @Bean
+        Gson gson() {
+            return new Gson();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.arya.banking.user.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load driver for comparing execution modes of a running user service.
+ * <p>
+ * Keeps {@code concurrency} requests in flight against {@code url} for {@code durationSeconds} and prints the
+ * throughput, error count and p50/p99/p999 latency; every response with a 4xx or 5xx status counts as an error.
+ * A {@code {userId}} placeholder in the URL is replaced per request with one of {@code seedUsers} users registered
+ * at the URL's host before the run, as user IDs are generated by the service and cannot be guessed; a URL
+ * without the placeholder, e.g. one naming an existing user, is requested as is.
+ * </p>
+ * <p>
+ * Run it with the command below once against the service started with the default platform threads and once
+ * against the service started with the {@code vthreads} profile, with the same slow downstreams, e.g. the
+ * {@link KeyCloakStubServer}, and compare the two reports.
+ * </p>
+ * <p>
+ * The same runs compare the servlet stack with the WebFlux stack: build with {@code mvn -Preactive package}, start
+ * the service once without and once with the {@code reactive} spring profile, and drive both with the same URL
+ * and concurrency, raising the concurrency until throughput stops growing.
+ * </p>
+ * <pre>
+ * java -cp target/test-classes org.arya.banking.user.loadtest.HttpLoadDriver http://localhost:8086/api/users/{userId} 2000 60 [bearerToken] [seedUsers]
+ * </pre>
+ */
+public final class HttpLoadDriver {
+
+    private static final String USER_ID_PLACEHOLDER = "{userId}";
+
+    private HttpLoadDriver() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.out.println("usage: HttpLoadDriver <url> <concurrency> <durationSeconds> [bearerToken] [seedUsers]");
+            return;
+        }
+        String url = args[0];
+        int concurrency = Integer.parseInt(args[1]);
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(args[2]));
+        String bearerToken = args.length > 3 && !args[3].isEmpty() ? args[3] : null;
+        int seedUsers = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        List<String> userIds = List.of();
+        if (url.contains(USER_ID_PLACEHOLDER)) {
+            URI target = URI.create(url.replace(USER_ID_PLACEHOLDER, ""));
+            userIds = LoadMixDriver.seedUsers(client, target.getScheme() + "://" + target.getRawAuthority(), seedUsers, concurrency,
+                    new AtomicLong(ThreadLocalRandom.current().nextLong(500_000_000L)));
+            System.out.printf("seeded %d users%n", userIds.size());
+        }
+        Semaphore inFlight = new Semaphore(concurrency);
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicLong errors = new AtomicLong();
+
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < durationNanos) {
+            inFlight.acquire();
+            String requestUrl = userIds.isEmpty() ? url
+                    : url.replace(USER_ID_PLACEHOLDER, userIds.get(ThreadLocalRandom.current().nextInt(userIds.size())));
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(requestUrl)).timeout(Duration.ofSeconds(30)).GET();
+            if (null != bearerToken) {
+                request.header("Authorization", "Bearer " + bearerToken);
+            }
+            long sent = System.nanoTime();
+            client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+                latencies.add(System.nanoTime() - sent);
+                if (null != e || response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.printf("requests=%d errors=%d throughput=%.1f/s p50=%.2fms p99=%.2fms p999=%.2fms%n",
+                sorted.length, errors.get(), sorted.length / elapsedSeconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999));
+    }
+
+    static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(percentile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(index, 0)] / 1e6;
+    }
+}
@@ -0,0 +1,286 @@
+package org.arya.banking.user.loadtest;
+
+import org.arya.banking.common.model.Address;
+import org.arya.banking.common.model.ContactNumber;
+import org.arya.banking.common.model.ContactNumberType;
+import org.arya.banking.common.model.RegistrationProgress;
+import org.arya.banking.common.model.SecurityDetails;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.dto.UpdateContactDto;
+import org.arya.banking.user.outbox.KeyCloakProvisioningTask;
+import org.arya.banking.user.repository.KeyCloakProvisioningTaskRepository;
+import org.arya.banking.user.repository.LoginFailures;
+import org.arya.banking.user.repository.RegistrationProgressRepository;
+import org.arya.banking.user.repository.SecurityDetailsRepository;
+import org.arya.banking.user.repository.UserAvroOutboxEventRepository;
+import org.arya.banking.user.repository.UserOutboxEventRepository;
+import org.arya.banking.user.repository.UserRepository;
+import org.arya.banking.user.repository.UserSnapshot;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory stand-ins for the Mongo repositories, used by the {@code loadtest} profile.
+ * <p>
+ * Each repository is a dynamic proxy that implements the derived queries, custom fragments and CRUD methods the
+ * request paths use, and parks the calling thread for {@code latency} on every call to simulate a database round
+ * trip. Methods no request path uses throw {@link UnsupportedOperationException}, so a new query shows up in the
+ * first load test instead of silently doing nothing. Outbox events are accepted and discarded.
+ * </p>
+ */
+final class InMemoryRepositories {
+
+    private final Duration latency;
+    private final Map<String, User> users = new ConcurrentHashMap<>();
+    private final Map<String, Long> userVersions = new ConcurrentHashMap<>();
+    private final Map<String, String> userIdsByEmailId = new ConcurrentHashMap<>();
+    private final Map<String, String> userIdsByContactNumber = new ConcurrentHashMap<>();
+    private final Map<String, SecurityDetails> securityDetails = new ConcurrentHashMap<>();
+    private final Map<String, List<RegistrationProgress>> registrationProgress = new ConcurrentHashMap<>();
+    private final Map<String, KeyCloakProvisioningTask> provisioningTasks = new ConcurrentHashMap<>();
+
+    InMemoryRepositories(Duration latency) {
+        this.latency = latency;
+    }
+
+    UserRepository userRepository() {
+        return proxy(UserRepository.class, (method, args) -> switch (method.getName()) {
+            case "save", "insert" -> {
+                User user = (User) args[0];
+                users.put(user.getUserId(), user);
+                userIdsByEmailId.put(user.getEmailId(), user.getUserId());
+                userIdsByContactNumber.put(user.getPrimaryContactNumber(), user.getUserId());
+                yield user;
+            }
+            case "findByUserIdWithFields" -> Optional.ofNullable(users.get((String) args[0]));
+            case "findSnapshotByUserId" -> Optional.ofNullable(users.get((String) args[0]))
+                    .map(this::snapshot);
+            case "findSnapshotsByUserIdIn" -> ((Collection<?>) args[0]).stream().map(users::get).filter(Objects::nonNull).map(this::snapshot).toList();
+            case "findByEmailIdOrPrimaryContactNumber" -> Optional.ofNullable(userIdsByEmailId.get((String) args[0]))
+                    .or(() -> Optional.ofNullable(userIdsByContactNumber.get((String) args[1])))
+                    .map(users::get);
+            case "updateContactNumberAndAddress" -> Optional.ofNullable(updateVersioned((String) args[0], (Collection<?>) args[3],
+                    user -> updateContactNumberAndAddress(user, (UpdateContactDto) args[1], (Address) args[2])));
+            case "updateStatus" -> null != updateVersioned((String) args[0], (Collection<?>) args[2], user -> {
+                user.setStatus((String) args[1]);
+                return user;
+            });
+            default -> unsupported(method);
+        });
+    }
+
+    SecurityDetailsRepository securityDetailsRepository() {
+        return proxy(SecurityDetailsRepository.class, (method, args) -> switch (method.getName()) {
+            case "save" -> {
+                SecurityDetails details = (SecurityDetails) args[0];
+                securityDetails.put(details.getUserId(), details);
+                yield details;
+            }
+            case "findByUserId" -> Optional.ofNullable(securityDetails.get((String) args[0]));
+            case "incrementLoginFailedAttempts" -> {
+                int lockThreshold = (Integer) args[1];
+                if (args[0] instanceof Map<?, ?> incrementsByUserId) {
+                    List<LoginFailures> updated = new ArrayList<>();
+                    incrementsByUserId.forEach((userId, increment) ->
+                            incrementLoginFailedAttempts((String) userId, (Integer) increment, lockThreshold).ifPresent(updated::add));
+                    yield updated;
+                }
+                yield incrementLoginFailedAttempts((String) args[0], 1, lockThreshold);
+            }
+            case "updateSecurityQuestions" -> null != securityDetails.computeIfPresent((String) args[0], (userId, details) -> {
+                details.setSecurityQuestions(castList(args[1]));
+                return details;
+            });
+            default -> unsupported(method);
+        });
+    }
+
+    RegistrationProgressRepository registrationProgressRepository() {
+        return proxy(RegistrationProgressRepository.class, (method, args) -> switch (method.getName()) {
+            case "insertIfAbsent" -> {
+                RegistrationProgress progress = (RegistrationProgress) args[0];
+                AtomicBoolean inserted = new AtomicBoolean();
+                registrationProgress.compute(progress.getUserId(), (userId, progresses) -> {
+                    List<RegistrationProgress> updated = null != progresses ? progresses : new CopyOnWriteArrayList<>();
+                    if (updated.stream().noneMatch(existing -> Objects.equals(existing.getSubStatus(), progress.getSubStatus()))) {
+                        updated.add(progress);
+                        inserted.set(true);
+                    }
+                    return updated;
+                });
+                yield inserted.get();
+            }
+            case "findByUserId" -> registrationProgress.getOrDefault((String) args[0], List.of());
+            default -> unsupported(method);
+        });
+    }
+
+    KeyCloakProvisioningTaskRepository keyCloakProvisioningTaskRepository() {
+        return proxy(KeyCloakProvisioningTaskRepository.class, (method, args) -> switch (method.getName()) {
+            case "save" -> {
+                KeyCloakProvisioningTask task = (KeyCloakProvisioningTask) args[0];
+                if (null == task.getId()) {
+                    task.setId(UUID.randomUUID().toString());
+                }
+                provisioningTasks.put(task.getId(), task);
+                yield task;
+            }
+            case "claim" -> Optional.ofNullable(provisioningTasks.get((String) args[0]));
+            case "deleteById" -> {
+                provisioningTasks.remove((String) args[0]);
+                yield null;
+            }
+            case "findByStatusAndNextAttemptAtLessThanEqual", "findByStatus" -> List.of();
+            case "rearm" -> Optional.empty();
+            case "expirePasswords", "countByStatus" -> 0L;
+            default -> unsupported(method);
+        });
+    }
+
+    UserOutboxEventRepository userOutboxEventRepository() {
+        return proxy(UserOutboxEventRepository.class, InMemoryRepositories::discard);
+    }
+
+    UserAvroOutboxEventRepository userAvroOutboxEventRepository() {
+        return proxy(UserAvroOutboxEventRepository.class, InMemoryRepositories::discard);
+    }
+
+    /**
+     * Mirrors the update pipeline of {@code SecurityDetailsRepositoryCustomImpl}: the increment that carries the counter
+     * across the threshold is the one that locks the account.
+     */
+    private Optional<LoginFailures> incrementLoginFailedAttempts(String userId, int increment, int lockThreshold) {
+        AtomicBoolean lockedNow = new AtomicBoolean();
+        return Optional.ofNullable(securityDetails.computeIfPresent(userId, (id, details) -> {
+            int previous = details.getLoginFailedAttempts();
+            details.setLoginFailedAttempts(previous + increment);
+            lockedNow.set(previous < lockThreshold && previous + increment >= lockThreshold);
+            return details;
+        })).map(details -> new LoginFailures(userId, details.getLoginFailedAttempts(), lockedNow.get()));
+    }
+
+    /**
+     * Mirrors the update pipeline of {@code UserRepositoryCustomImpl}: a new primary number demotes the old primary
+     * to an other number and is promoted in place if the user already has it, and a known number is never appended
+     * twice.
+     */
+    private UserSnapshot snapshot(User user) {
+        return new UserSnapshot(user, userVersions.getOrDefault(user.getUserId(), 0L));
+    }
+
+    /**
+     * Applies the update and increments the user's version, unless the version is none of the expected ones.
+     *
+     * @return the updated user, or null if the user does not exist or the update did not apply
+     */
+    private User updateVersioned(String userId, Collection<?> expectedVersions, UnaryOperator<User> update) {
+        AtomicBoolean applied = new AtomicBoolean();
+        users.computeIfPresent(userId, (id, user) -> {
+            long version = userVersions.getOrDefault(id, 0L);
+            if (null != expectedVersions && !expectedVersions.contains(version)) {
+                return user;
+            }
+            userVersions.put(id, version + 1);
+            applied.set(true);
+            return update.apply(user);
+        });
+        return applied.get() ? users.get(userId) : null;
+    }
+
+    private static User updateContactNumberAndAddress(User user, UpdateContactDto updateContactDto, Address address) {
+        if (null != updateContactDto) {
+            String number = updateContactDto.contactNumber();
+            List<ContactNumber> contactNumbers = new ArrayList<>(null != user.getContactNumbers() ? user.getContactNumbers() : List.of());
+            boolean known = contactNumbers.stream().anyMatch(contactNumber -> number.equals(contactNumber.getContactNumber()));
+            if (updateContactDto.isPrimary()) {
+                user.setPrimaryContactNumber(number);
+                for (ContactNumber contactNumber : contactNumbers) {
+                    if (number.equals(contactNumber.getContactNumber())) {
+                        contactNumber.setType(ContactNumberType.PRIMARY);
+                    } else if (ContactNumberType.PRIMARY == contactNumber.getType()) {
+                        contactNumber.setType(ContactNumberType.OTHERS);
+                    }
+                }
+            }
+            if (!known) {
+                contactNumbers.add(ContactNumber.builder()
+                        .contactNumber(number)
+                        .type(updateContactDto.isPrimary() ? ContactNumberType.PRIMARY : ContactNumberType.OTHERS)
+                        .isVerified(false).build());
+            }
+            user.setContactNumbers(contactNumbers);
+        }
+        if (null != address) {
+            List<Address> addresses = new ArrayList<>(null != user.getAddresss() ? user.getAddresss() : List.of());
+            addresses.removeIf(existing -> Objects.equals(existing.getAddressType(), address.getAddressType()));
+            addresses.add(address);
+            user.setAddresss(addresses);
+        }
+        return user;
+    }
+
+    /**
+     * Accepts writes and returns their argument, and answers every query with an empty result.
+     */
+    private static Object discard(Method method, Object[] args) {
+        if (method.getName().startsWith("save") || method.getName().startsWith("insert")) {
+            return args[0];
+        }
+        Class<?> returnType = method.getReturnType();
+        if (Optional.class == returnType) {
+            return Optional.empty();
+        }
+        if (List.class.isAssignableFrom(returnType) || Iterable.class == returnType) {
+            return Collections.emptyList();
+        }
+        if (long.class == returnType) {
+            return 0L;
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> castList(Object list) {
+        return (List<T>) list;
+    }
+
+    private static Object unsupported(Method method) {
+        throw new UnsupportedOperationException("Not implemented by the in-memory repository: " + method);
+    }
+
+    @FunctionalInterface
+    private interface RepositoryMethod {
+        Object invoke(Method method, Object[] args);
+    }
+
+    private <T> T proxy(Class<T> repositoryType, RepositoryMethod repositoryMethod) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "toString" -> "InMemory" + repositoryType.getSimpleName();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> {
+                if (!latency.isZero()) {
+                    LockSupport.parkNanos(latency.toNanos());
+                }
+                yield repositoryMethod.invoke(method, args);
+            }
+        };
+        return repositoryType.cast(Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType}, handler));
+    }
+}
@@ -0,0 +1,102 @@
+package org.arya.banking.user.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the auth-service user registration endpoint, for load-testing the Keycloak Feign client.
+ * <p>
+ * Every call to {@value #REGISTER_PATH} is answered with {@code 201} after a random latency between
+ * {@code minLatencyMs} and {@code maxLatencyMs}; a share of calls given by {@code errorRate} is answered with
+ * {@code 503} instead. Point the service at it with {@code arya.user.keycloak.service-url=http://localhost:<port>}
+ * and watch the {@code arya.user.http.client.*} metrics while driving registrations.
+ * </p>
+ * <pre>
+ * java -cp target/test-classes org.arya.banking.user.loadtest.KeyCloakStubServer [port] [minLatencyMs] [maxLatencyMs] [errorRate]
+ * </pre>
+ */
+public final class KeyCloakStubServer implements AutoCloseable {
+
+    public static final String REGISTER_PATH = "/internal/api/auth/register/users";
+
+    private static final byte[] CREATED = "{\"message\":\"User created\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] UNAVAILABLE = "{\"message\":\"Service unavailable\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long minLatencyMs;
+    private final long maxLatencyMs;
+    private final double errorRate;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    public KeyCloakStubServer(int port, long minLatencyMs, long maxLatencyMs, double errorRate) throws IOException {
+        this.minLatencyMs = minLatencyMs;
+        this.maxLatencyMs = Math.max(minLatencyMs, maxLatencyMs);
+        this.errorRate = errorRate;
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.server.createContext(REGISTER_PATH, this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Highest number of calls the stub served concurrently, i.e. what the client-side bulkhead let through.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            body.readAllBytes();
+            TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(minLatencyMs, maxLatencyMs + 1));
+            boolean fail = ThreadLocalRandom.current().nextDouble() < errorRate;
+            byte[] response = fail ? UNAVAILABLE : CREATED;
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(fail ? 503 : 201, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8099;
+        long minLatencyMs = args.length > 1 ? Long.parseLong(args[1]) : 20;
+        long maxLatencyMs = args.length > 2 ? Long.parseLong(args[2]) : 200;
+        double errorRate = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+        KeyCloakStubServer stub = new KeyCloakStubServer(port, minLatencyMs, maxLatencyMs, errorRate);
+        Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                System.out.printf("Keycloak stub stopped, max in flight: %d%n", stub.getMaxInFlight())));
+        System.out.printf("Keycloak stub listening on port %d, latency %d-%d ms, error rate %.2f%n",
+                stub.getPort(), minLatencyMs, maxLatencyMs, errorRate);
+    }
+}
@@ -0,0 +1,203 @@
+package org.arya.banking.user.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.arya.banking.user.loadtest.HttpLoadDriver.percentile;
+
+/**
+ * Closed-loop driver running a weighted mix of user service requests and reporting each request type separately.
+ * <p>
+ * Registers {@code seedUsers} users first, then keeps {@code concurrency} requests in flight for
+ * {@code durationSeconds}, choosing each request from the mix: {@code register} a new user, {@code get} a seeded
+ * user's profile, {@code update} a seeded user's contact numbers, or report a {@code login-failure} for a seeded user
+ * through the internal endpoint. Throughput, errors and p50/p99/p999 latency are printed per request type and in
+ * total. Meant to run against {@link LoadTestApplication}, whose default bearer token is {@code loadtest}:
+ * </p>
+ * <pre>
+ * java -cp target/test-classes org.arya.banking.user.loadtest.LoadMixDriver http://localhost:8086 200 60 register=10,get=60,update=20,login-failure=10 [seedUsers] [bearerToken]
+ * </pre>
+ */
+public final class LoadMixDriver {
+
+    private static final Pattern USER_ID = Pattern.compile("\"userId\"\\s*:\\s*\"([^\"]+)\"");
+    private static final String JSON = "application/json";
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final String bearerToken;
+    private final AtomicLong sequence = new AtomicLong(ThreadLocalRandom.current().nextLong(500_000_000L));
+    private List<String> userIds = List.of();
+
+    private LoadMixDriver(String baseUrl, String bearerToken) {
+        this.baseUrl = baseUrl;
+        this.bearerToken = bearerToken;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.out.println("usage: LoadMixDriver <baseUrl> <concurrency> <durationSeconds> [mix] [seedUsers] [bearerToken]");
+            return;
+        }
+        int concurrency = Integer.parseInt(args[1]);
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(args[2]));
+        Map<String, Integer> mix = parseMix(args.length > 3 ? args[3] : "register=10,get=60,update=20,login-failure=10");
+        int seedUsers = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+        LoadMixDriver driver = new LoadMixDriver(args[0], args.length > 5 ? args[5] : "loadtest");
+
+        driver.seed(seedUsers, concurrency);
+        System.out.printf("seeded %d users%n", driver.userIds.size());
+        driver.run(mix, concurrency, durationNanos);
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] weight = entry.split("=");
+            weights.put(weight[0].trim(), Integer.parseInt(weight[1].trim()));
+        }
+        return weights;
+    }
+
+    private void seed(int seedUsers, int concurrency) throws InterruptedException {
+        userIds = seedUsers(client, baseUrl, seedUsers, concurrency, sequence);
+    }
+
+    /**
+     * Registers users with at most {@code concurrency} registrations in flight and returns the IDs the service
+     * assigned them, so later requests address users that exist.
+     *
+     * @throws IllegalStateException if no user could be registered
+     */
+    static List<String> seedUsers(HttpClient client, String baseUrl, int seedUsers, int concurrency, AtomicLong sequence)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(concurrency);
+        List<String> seeded = Collections.synchronizedList(new ArrayList<>(seedUsers));
+        for (int i = 0; i < seedUsers; i++) {
+            inFlight.acquire();
+            client.sendAsync(register(baseUrl, sequence.incrementAndGet()), HttpResponse.BodyHandlers.ofString()).whenComplete((response, e) -> {
+                if (null == e) {
+                    Matcher matcher = USER_ID.matcher(response.body());
+                    if (matcher.find()) {
+                        seeded.add(matcher.group(1));
+                    }
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency);
+        if (seeded.isEmpty()) {
+            throw new IllegalStateException("No user could be registered at " + baseUrl);
+        }
+        return List.copyOf(seeded);
+    }
+
+    private void run(Map<String, Integer> mix, int concurrency, long durationNanos) throws InterruptedException {
+        List<String> operations = new ArrayList<>();
+        mix.forEach((operation, weight) -> operations.addAll(Collections.nCopies(weight, operation)));
+        Map<String, Stats> stats = new LinkedHashMap<>();
+        mix.keySet().forEach(operation -> stats.put(operation, new Stats()));
+
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        while (System.nanoTime() - start < durationNanos) {
+            inFlight.acquire();
+            String operation = operations.get(ThreadLocalRandom.current().nextInt(operations.size()));
+            Stats operationStats = stats.get(operation);
+            long sent = System.nanoTime();
+            send(operation).whenComplete((status, e) -> {
+                operationStats.latencies.add(System.nanoTime() - sent);
+                if (null != e || status >= 400) {
+                    operationStats.errors.incrementAndGet();
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(concurrency);
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        List<Long> all = new ArrayList<>();
+        long errors = 0;
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            all.addAll(entry.getValue().latencies);
+            errors += entry.getValue().errors.get();
+            report(entry.getKey(), entry.getValue().latencies, entry.getValue().errors.get(), elapsedSeconds);
+        }
+        report("total", all, errors, elapsedSeconds);
+    }
+
+    private static void report(String operation, Iterable<Long> latencies, long errors, double elapsedSeconds) {
+        List<Long> copy = new ArrayList<>();
+        latencies.forEach(copy::add);
+        long[] sorted = copy.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        System.out.printf("%-14s requests=%d errors=%d throughput=%.1f/s p50=%.2fms p99=%.2fms p999=%.2fms%n",
+                operation, sorted.length, errors, sorted.length / elapsedSeconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999));
+    }
+
+    private CompletableFuture<Integer> send(String operation) {
+        HttpRequest request = switch (operation) {
+            case "register" -> register();
+            case "get" -> HttpRequest.newBuilder(uri("/api/users/" + randomUserId())).timeout(Duration.ofSeconds(30)).GET().build();
+            case "update" -> HttpRequest.newBuilder(uri("/api/users/" + randomUserId())).timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", JSON)
+                    .PUT(HttpRequest.BodyPublishers.ofString(String.format(
+                            "{\"isLockUser\":false,\"updateContactDto\":{\"contactNumber\":\"%s\",\"isPrimary\":false}}",
+                            contactNumber(sequence.incrementAndGet())))).build();
+            case "login-failure" -> HttpRequest.newBuilder(uri("/internal/api/security-details/" + randomUserId() + "?loginFailed=true"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + bearerToken)
+                    .PUT(HttpRequest.BodyPublishers.noBody()).build();
+            default -> throw new IllegalArgumentException("Unknown operation: " + operation);
+        };
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+
+    private HttpRequest register() {
+        return register(baseUrl, sequence.incrementAndGet());
+    }
+
+    private static HttpRequest register(String baseUrl, long n) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/register")).timeout(Duration.ofSeconds(30))
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(String.format(
+                        "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"emailId\":\"load.test.%d@example.com\","
+                                + "\"password\":\"LoadTest@Passw0rd1\",\"primaryContactNumber\":\"%s\"}",
+                        n, contactNumber(n)))).build();
+    }
+
+    private static String contactNumber(long n) {
+        return String.format("9%09d", n % 1_000_000_000L);
+    }
+
+    private String randomUserId() {
+        return userIds.get(ThreadLocalRandom.current().nextInt(userIds.size()));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static final class Stats {
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
@@ -0,0 +1,33 @@
+package org.arya.banking.user.loadtest;
+
+import org.arya.banking.user.AryaBankingUserServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.util.Map;
+
+/**
+ * Starts the user service with the {@code loadtest} profile from the test classpath, where {@link LoadTestConfig}
+ * and {@code application-loadtest.yaml} live, so it needs no Mongo, Keycloak, config server, Vault or Eureka:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.arya.banking.user.loadtest.LoadTestApplication
+ * </pre>
+ * <p>
+ * Remote config is switched off here rather than in the profile file, because the config server import is
+ * resolved before profile-specific files are read.
+ * </p>
+ */
+public final class LoadTestApplication {
+
+    private LoadTestApplication() {
+    }
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(AryaBankingUserServiceApplication.class)
+                .profiles("loadtest")
+                .properties(Map.of(
+                        "spring.cloud.config.enabled", "false",
+                        "spring.cloud.bootstrap.enabled", "false",
+                        "spring.cloud.vault.enabled", "false"))
+                .run(args);
+    }
+}
@@ -0,0 +1,142 @@
+package org.arya.banking.user.loadtest;
+
+import org.arya.banking.common.dto.KeyCloakResponse;
+import org.arya.banking.common.model.KeyCloakUser;
+import org.arya.banking.user.external.KeyCloakService;
+import org.arya.banking.user.repository.KeyCloakProvisioningTaskRepository;
+import org.arya.banking.user.repository.RegistrationProgressRepository;
+import org.arya.banking.user.repository.SecurityDetailsRepository;
+import org.arya.banking.user.repository.UserAvroOutboxEventRepository;
+import org.arya.banking.user.repository.UserOutboxEventRepository;
+import org.arya.banking.user.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replaces every remote dependency of the service with an in-process stand-in for the {@code loadtest} profile.
+ * <p>
+ * The Mongo repositories are served by {@link InMemoryRepositories} with {@code arya.user.loadtest.mongo-latency}
+ * per call, the auth-service answers every Keycloak user creation after {@code arya.user.loadtest.keycloak-latency},
+ * transactions only run their synchronizations, and the bearer token {@code arya.user.loadtest.token} is accepted
+ * as an internal service token.
+ * </p>
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestConfig {
+
+    private final InMemoryRepositories repositories;
+
+    public LoadTestConfig(@Value("${arya.user.loadtest.mongo-latency:PT0.0005S}") Duration mongoLatency) {
+        this.repositories = new InMemoryRepositories(mongoLatency);
+    }
+
+    @Bean
+    @Primary
+    public UserRepository inMemoryUserRepository() {
+        return repositories.userRepository();
+    }
+
+    @Bean
+    @Primary
+    public SecurityDetailsRepository inMemorySecurityDetailsRepository() {
+        return repositories.securityDetailsRepository();
+    }
+
+    @Bean
+    @Primary
+    public RegistrationProgressRepository inMemoryRegistrationProgressRepository() {
+        return repositories.registrationProgressRepository();
+    }
+
+    @Bean
+    @Primary
+    public KeyCloakProvisioningTaskRepository inMemoryKeyCloakProvisioningTaskRepository() {
+        return repositories.keyCloakProvisioningTaskRepository();
+    }
+
+    @Bean
+    @Primary
+    public UserOutboxEventRepository inMemoryUserOutboxEventRepository() {
+        return repositories.userOutboxEventRepository();
+    }
+
+    @Bean
+    @Primary
+    public UserAvroOutboxEventRepository inMemoryUserAvroOutboxEventRepository() {
+        return repositories.userAvroOutboxEventRepository();
+    }
+
+    @Bean
+    @Primary
+    public KeyCloakService stubKeyCloakService(@Value("${arya.user.loadtest.keycloak-latency:PT0.05S}") Duration keyCloakLatency) {
+        return new KeyCloakService() {
+            @Override
+            public ResponseEntity<KeyCloakResponse> createKeyCloakUser(KeyCloakUser keyCloakUser) {
+                LockSupport.parkNanos(keyCloakLatency.toNanos());
+                return ResponseEntity.status(HttpStatus.CREATED).build();
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    public PlatformTransactionManager synchronizationOnlyTransactionManager() {
+        return new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+                // nothing to begin, the in-memory repositories apply writes immediately
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+                // writes were already applied
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+                // writes cannot be undone; load tests only count the failed request
+            }
+        };
+    }
+
+    @Bean
+    @Primary
+    public JwtDecoder loadTestJwtDecoder(@Value("${arya.user.loadtest.token:loadtest}") String token) {
+        return tokenValue -> {
+            if (!token.equals(tokenValue)) {
+                throw new BadJwtException("Unknown load test token");
+            }
+            Instant issuedAt = Instant.now();
+            return Jwt.withTokenValue(tokenValue)
+                    .header("alg", "none")
+                    .subject("service-account-loadtest")
+                    .claim("realm_access", Map.of("roles", List.of("INTERNAL_SERVICE")))
+                    .issuedAt(issuedAt)
+                    .expiresAt(issuedAt.plusSeconds(300)).build();
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package org.arya.banking.user.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.arya.banking.common.model.RegistrationProgress;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Query;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RegistrationProgressRepositoryCustomImplTest {
+
+    private static final int THREADS = 8;
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient mongoClient;
+    private static MongoTemplate mongoTemplate;
+
+    private RegistrationProgressRepositoryCustomImpl repository;
+
+    @BeforeAll
+    static void connect() {
+        mongoClient = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(mongoClient, "arya-user-test");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(RegistrationProgress.class);
+        mongoTemplate.indexOps(RegistrationProgress.class).ensureIndex(new Index().on("userId", Sort.Direction.ASC)
+                .on("subStatus", Sort.Direction.ASC).unique().named("registration_progress_user_sub_status_uq"));
+        repository = new RegistrationProgressRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @Test
+    void recordedStepIsNotInsertedAgain() {
+        assertTrue(repository.insertIfAbsent(progress("ARYA1", "BASIC_DETAILS_ADDED")));
+        assertFalse(repository.insertIfAbsent(progress("ARYA1", "BASIC_DETAILS_ADDED")));
+        assertTrue(repository.insertIfAbsent(progress("ARYA1", "ADD_ADDRESS")));
+
+        assertEquals(2, mongoTemplate.count(new Query(), RegistrationProgress.class));
+    }
+
+    @Test
+    void concurrentInstancesRecordAStepExactlyOnce() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return repository.insertIfAbsent(progress("ARYA1", "BASIC_DETAILS_ADDED"));
+                }));
+            }
+            start.countDown();
+
+            int inserted = 0;
+            for (Future<Boolean> future : futures) {
+                inserted += future.get() ? 1 : 0;
+            }
+            assertEquals(1, inserted);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, mongoTemplate.count(new Query(), RegistrationProgress.class));
+    }
+
+    private static RegistrationProgress progress(String userId, String subStatus) {
+        return RegistrationProgress.builder().userId(userId).status("IN_PROGRESS").subStatus(subStatus).build();
+    }
+}
@@ -0,0 +1,133 @@
+package org.arya.banking.user.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.arya.banking.common.model.SecurityDetails;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+class SecurityDetailsRepositoryCustomImplTest {
+
+    private static final int MAX_LOGIN_FAILED_ATTEMPTS = 5;
+    private static final int THREADS = 16;
+    private static final int BATCHES_PER_THREAD = 20;
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient mongoClient;
+    private static MongoTemplate mongoTemplate;
+
+    private SecurityDetailsRepositoryCustomImpl repository;
+
+    @BeforeAll
+    static void connect() {
+        mongoClient = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(mongoClient, "arya-user-test");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(SecurityDetails.class);
+        repository = new SecurityDetailsRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @Test
+    void concurrentBatchesCrossTheLockoutThresholdExactlyOnce() throws Exception {
+        mongoTemplate.insert(SecurityDetails.builder().userId("first").loginFailedAttempts(0).build());
+        mongoTemplate.insert(SecurityDetails.builder().userId("second").loginFailedAttempts(0).build());
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> futures = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int crossings = 0;
+                    for (int batch = 0; batch < BATCHES_PER_THREAD; batch++) {
+                        for (LoginFailures loginFailures : repository.incrementLoginFailedAttempts(Map.of("first", 1, "second", 2), MAX_LOGIN_FAILED_ATTEMPTS)) {
+                            if (loginFailures.lockedNow()) {
+                                crossings++;
+                            }
+                        }
+                    }
+                    return crossings;
+                }));
+            }
+            start.countDown();
+
+            int crossings = 0;
+            for (Future<Integer> future : futures) {
+                crossings += future.get();
+            }
+            assertEquals(2, crossings);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * BATCHES_PER_THREAD, repository.incrementLoginFailedAttempts(Map.of("first", 0), MAX_LOGIN_FAILED_ATTEMPTS).get(0).loginFailedAttempts());
+        assertEquals(2 * THREADS * BATCHES_PER_THREAD, repository.incrementLoginFailedAttempts(Map.of("second", 0), MAX_LOGIN_FAILED_ATTEMPTS).get(0).loginFailedAttempts());
+    }
+
+    @Test
+    void crossingIncrementStampsTheLock() {
+        mongoTemplate.insert(SecurityDetails.builder().userId("user").loginFailedAttempts(3).build());
+
+        LoginFailures loginFailures = repository.incrementLoginFailedAttempts(Map.of("user", 2), MAX_LOGIN_FAILED_ATTEMPTS).get(0);
+
+        assertEquals(5, loginFailures.loginFailedAttempts());
+        assertTrue(loginFailures.lockedNow());
+        Document stored = mongoTemplate.getCollection(mongoTemplate.getCollectionName(SecurityDetails.class)).find().first();
+        assertNotNull(stored.get("lockedAt"));
+        assertFalse(repository.incrementLoginFailedAttempts("user", MAX_LOGIN_FAILED_ATTEMPTS).orElseThrow().lockedNow());
+    }
+
+    @Test
+    void redeliveredIncrementIsSkippedButReportsItsLock() {
+        mongoTemplate.insert(SecurityDetails.builder().userId("user").loginFailedAttempts(4).build());
+
+        assertTrue(repository.incrementLoginFailedAttempts(Map.of("user", 1), MAX_LOGIN_FAILED_ATTEMPTS, "partition-0", Map.of("user", 7L)).get(0).lockedNow());
+        LoginFailures redelivered = repository.incrementLoginFailedAttempts(Map.of("user", 1), MAX_LOGIN_FAILED_ATTEMPTS, "partition-0", Map.of("user", 7L)).get(0);
+
+        assertEquals(5, redelivered.loginFailedAttempts());
+        assertTrue(redelivered.lockedNow());
+    }
+
+    @Test
+    void unknownUsersAreLeftOutOfTheResult() {
+        mongoTemplate.insert(SecurityDetails.builder().userId("known").loginFailedAttempts(3).build());
+
+        List<LoginFailures> result = repository.incrementLoginFailedAttempts(Map.of("known", 1, "unknown", 1), MAX_LOGIN_FAILED_ATTEMPTS);
+
+        assertEquals(1, result.size());
+        assertEquals(4, result.get(0).loginFailedAttempts());
+        assertFalse(result.get(0).lockedNow());
+    }
+}
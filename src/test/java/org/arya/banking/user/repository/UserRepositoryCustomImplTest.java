@@ -0,0 +1,174 @@
+package org.arya.banking.user.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.dto.UpdateContactDto;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+class UserRepositoryCustomImplTest {
+
+    private static final String STAGES = "user_update_stages";
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient mongoClient;
+    private static MongoTemplate mongoTemplate;
+
+    private MongoCollection<Document> stages;
+    private UserRepositoryCustomImpl repository;
+
+    @BeforeAll
+    static void connect() {
+        mongoClient = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(mongoClient, "arya-user-test");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(STAGES);
+        mongoTemplate.dropCollection(User.class);
+        stages = mongoTemplate.getCollection(STAGES);
+        repository = new UserRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @Test
+    void newPrimaryNumberDemotesTheOldPrimaryAndIsAppended() {
+        Document user = apply(new Document("primaryContactNumber", "9000000001")
+                        .append("contactNumbers", List.of(contact("9000000001", "PRIMARY"))),
+                UserRepositoryCustomImpl.setPrimaryContactNumberStage("9000000002", contact("9000000002", "PRIMARY")));
+
+        assertEquals("9000000002", user.getString("primaryContactNumber"));
+        assertEquals(List.of(contact("9000000001", "OTHERS"), contact("9000000002", "PRIMARY")), user.getList("contactNumbers", Document.class));
+    }
+
+    @Test
+    void existingNumberIsPromotedInPlace() {
+        Document user = apply(new Document("primaryContactNumber", "9000000001")
+                        .append("contactNumbers", List.of(contact("9000000001", "PRIMARY"), contact("9000000002", "OTHERS"))),
+                UserRepositoryCustomImpl.setPrimaryContactNumberStage("9000000002", contact("9000000002", "PRIMARY")));
+
+        assertEquals("9000000002", user.getString("primaryContactNumber"));
+        assertEquals(List.of(contact("9000000001", "OTHERS"), contact("9000000002", "PRIMARY")), user.getList("contactNumbers", Document.class));
+    }
+
+    @Test
+    void primaryNumberIsAddedToAUserWithoutContactNumbers() {
+        Document user = apply(new Document(),
+                UserRepositoryCustomImpl.setPrimaryContactNumberStage("9000000001", contact("9000000001", "PRIMARY")));
+
+        assertEquals(List.of(contact("9000000001", "PRIMARY")), user.getList("contactNumbers", Document.class));
+    }
+
+    @Test
+    void otherNumberIsAppendedOnce() {
+        Document initial = new Document("contactNumbers", List.of(contact("9000000001", "PRIMARY")));
+        Document once = apply(initial, UserRepositoryCustomImpl.addContactNumberStage("9000000002", contact("9000000002", "OTHERS")));
+        stages.updateOne(new Document("_id", once.get("_id")),
+                List.of(UserRepositoryCustomImpl.addContactNumberStage("9000000002", contact("9000000002", "OTHERS"))));
+        Document twice = stages.find(new Document("_id", once.get("_id"))).first();
+
+        assertEquals(List.of(contact("9000000001", "PRIMARY"), contact("9000000002", "OTHERS")), twice.getList("contactNumbers", Document.class));
+    }
+
+    @Test
+    void knownNumberIsNotAppendedAsOtherNumber() {
+        Document user = apply(new Document("contactNumbers", List.of(contact("9000000001", "PRIMARY"))),
+                UserRepositoryCustomImpl.addContactNumberStage("9000000001", contact("9000000001", "OTHERS")));
+
+        assertEquals(List.of(contact("9000000001", "PRIMARY")), user.getList("contactNumbers", Document.class));
+    }
+
+    @Test
+    void addressReplacesTheAddressOfTheSameType() {
+        Document home = new Document("addressType", "HOME").append("city", "Pune");
+        Document office = new Document("addressType", "OFFICE").append("city", "Mumbai");
+        Document newHome = new Document("addressType", "HOME").append("city", "Delhi");
+
+        Document user = apply(new Document("addresss", List.of(home, office)), UserRepositoryCustomImpl.replaceAddressStage("HOME", newHome));
+
+        assertEquals(List.of(office, newHome), user.getList("addresss", Document.class));
+    }
+
+    @Test
+    void addressOfANewTypeIsAppended() {
+        Document home = new Document("addressType", "HOME").append("city", "Pune");
+        Document office = new Document("addressType", "OFFICE").append("city", "Mumbai");
+
+        Document user = apply(new Document("addresss", List.of(home)), UserRepositoryCustomImpl.replaceAddressStage("OFFICE", office));
+
+        assertEquals(List.of(home, office), user.getList("addresss", Document.class));
+    }
+
+    @Test
+    void everyUpdateIncrementsTheVersion() {
+        mongoTemplate.insert(user("ARYA1"));
+        assertEquals(0L, repository.findSnapshotByUserId("ARYA1").orElseThrow().version());
+
+        assertTrue(repository.updateContactNumberAndAddress("ARYA1", new UpdateContactDto("9000000002", false), null, null).isPresent());
+        assertEquals(1L, repository.findSnapshotByUserId("ARYA1").orElseThrow().version());
+        assertTrue(repository.updateStatus("ARYA1", "BLOCKED", null));
+        assertEquals(2L, repository.findSnapshotByUserId("ARYA1").orElseThrow().version());
+    }
+
+    @Test
+    void conditionalUpdateAppliesToAnUnchangedUser() {
+        mongoTemplate.insert(user("ARYA1"));
+        UserSnapshot snapshot = repository.findSnapshotByUserId("ARYA1").orElseThrow();
+
+        assertTrue(repository.updateContactNumberAndAddress("ARYA1", new UpdateContactDto("9000000002", false), null, List.of(snapshot.version())).isPresent());
+        assertTrue(repository.updateStatus("ARYA1", "BLOCKED", List.of(snapshot.version() + 1)));
+    }
+
+    @Test
+    void conditionalUpdateMissesAUserChangedSinceTheSnapshot() {
+        mongoTemplate.insert(user("ARYA1"));
+        UserSnapshot snapshot = repository.findSnapshotByUserId("ARYA1").orElseThrow();
+        assertTrue(repository.updateStatus("ARYA1", "BLOCKED", null));
+
+        assertFalse(repository.updateContactNumberAndAddress("ARYA1", new UpdateContactDto("9000000002", false), null, List.of(snapshot.version())).isPresent());
+        assertFalse(repository.updateStatus("ARYA1", "ACTIVE", List.of(snapshot.version())));
+        assertEquals("BLOCKED", repository.findSnapshotByUserId("ARYA1").orElseThrow().user().getStatus());
+    }
+
+    private Document apply(Document initial, Document stage) {
+        Document user = new Document(initial);
+        stages.insertOne(user);
+        stages.updateOne(new Document("_id", user.get("_id")), List.of(stage));
+        return stages.find(new Document("_id", user.get("_id"))).first();
+    }
+
+    private static Document contact(String contactNumber, String type) {
+        return new Document("contactNumber", contactNumber).append("isVerified", false).append("type", type);
+    }
+
+    private static User user(String userId) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setPrimaryContactNumber("9000000001");
+        user.setStatus("ACTIVE");
+        return user;
+    }
+}
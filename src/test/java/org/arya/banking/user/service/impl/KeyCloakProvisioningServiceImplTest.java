@@ -0,0 +1,191 @@
+package org.arya.banking.user.service.impl;
+
+import feign.FeignException;
+import feign.Request;
+import feign.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.external.KeyCloakService;
+import org.arya.banking.user.outbox.KeyCloakProvisioningTask;
+import org.arya.banking.user.repository.KeyCloakProvisioningTaskRepository;
+import org.arya.banking.user.util.PasswordCipher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.arya.banking.user.constants.ProvisioningStatus.FAILED;
+import static org.arya.banking.user.constants.ProvisioningStatus.PENDING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class KeyCloakProvisioningServiceImplTest {
+
+    private static final String ENCRYPTION_KEY = "bG9hZHRlc3Qta2V5LTEyMw==";
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(2);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(10);
+
+    private final KeyCloakProvisioningTaskRepository repository = mock(KeyCloakProvisioningTaskRepository.class);
+    private final KeyCloakService keyCloakService = mock(KeyCloakService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private KeyCloakProvisioningServiceImpl provisioningService;
+    private KeyCloakProvisioningTask task;
+
+    @BeforeEach
+    void setUp() {
+        PasswordCipher passwordCipher = new PasswordCipher(ENCRYPTION_KEY);
+        provisioningService = new KeyCloakProvisioningServiceImpl(repository, keyCloakService, passwordCipher,
+                new SyncTaskExecutor(), meterRegistry);
+        ReflectionTestUtils.setField(provisioningService, "maxRetries", 3);
+        ReflectionTestUtils.setField(provisioningService, "initialBackoff", INITIAL_BACKOFF);
+        ReflectionTestUtils.setField(provisioningService, "maxBackoff", MAX_BACKOFF);
+        ReflectionTestUtils.setField(provisioningService, "lease", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(provisioningService, "sweepBatchSize", 100);
+        ReflectionTestUtils.setField(provisioningService, "passwordRetention", Duration.ofDays(7));
+
+        task = KeyCloakProvisioningTask.builder()
+                .id("task-1")
+                .userId("user-1")
+                .encryptedPassword(passwordCipher.encrypt("secret"))
+                .status(PENDING)
+                .createdAt(Instant.now()).build();
+        when(repository.save(any(KeyCloakProvisioningTask.class))).thenAnswer(invocation -> {
+            KeyCloakProvisioningTask saved = invocation.getArgument(0);
+            if (null == saved.getId()) {
+                saved.setId("task-1");
+            }
+            return saved;
+        });
+        when(repository.claim(eq("task-1"), any(), any())).thenReturn(Optional.of(task));
+    }
+
+    @Test
+    void createdUserDeletesTheTask() {
+        when(keyCloakService.createKeyCloakUser(any())).thenReturn(ResponseEntity.status(HttpStatus.CREATED).build());
+
+        provisioningService.enqueue(user(), "secret");
+
+        verify(repository).deleteById("task-1");
+        assertEquals(1, meterRegistry.timer("arya.user.keycloak.create-user", "outcome", "created").count());
+    }
+
+    @Test
+    void conflictIsTreatedAsAlreadyProvisioned() {
+        when(keyCloakService.createKeyCloakUser(any())).thenThrow(feignException(409));
+
+        provisioningService.enqueue(user(), "secret");
+
+        verify(repository).deleteById("task-1");
+        assertEquals(1, meterRegistry.timer("arya.user.keycloak.create-user", "outcome", "exists").count());
+    }
+
+    @Test
+    void failedAttemptIsRescheduledWithExponentialBackoff() {
+        when(keyCloakService.createKeyCloakUser(any())).thenThrow(feignException(503));
+        task.setRetryCount(1);
+
+        Instant before = Instant.now();
+        provisioningService.enqueue(user(), "secret");
+
+        verify(repository, never()).deleteById(anyString());
+        KeyCloakProvisioningTask rescheduled = lastSaved(2);
+        assertEquals(2, rescheduled.getRetryCount());
+        assertEquals(PENDING, rescheduled.getStatus());
+        assertFalse(rescheduled.getNextAttemptAt().isBefore(before.plus(INITIAL_BACKOFF.multipliedBy(2))));
+        assertTrue(rescheduled.getNextAttemptAt().isBefore(Instant.now().plus(INITIAL_BACKOFF.multipliedBy(2)).plusSeconds(1)));
+    }
+
+    @Test
+    void backoffIsCappedAtTheMaximum() {
+        when(keyCloakService.createKeyCloakUser(any())).thenThrow(feignException(503));
+        ReflectionTestUtils.setField(provisioningService, "maxRetries", 10);
+        task.setRetryCount(6);
+
+        provisioningService.enqueue(user(), "secret");
+
+        assertTrue(lastSaved(2).getNextAttemptAt().isBefore(Instant.now().plus(MAX_BACKOFF).plusSeconds(1)));
+    }
+
+    @Test
+    void exhaustedRetriesMarkTheTaskFailed() {
+        when(keyCloakService.createKeyCloakUser(any())).thenThrow(feignException(503));
+        task.setRetryCount(2);
+
+        provisioningService.enqueue(user(), "secret");
+
+        KeyCloakProvisioningTask failed = lastSaved(2);
+        assertEquals(3, failed.getRetryCount());
+        assertEquals(FAILED, failed.getStatus());
+        assertEquals(1, meterRegistry.timer("arya.user.keycloak.create-user", "outcome", "failed").count());
+    }
+
+    @Test
+    void reconcileRearmsFailedTasks() {
+        KeyCloakProvisioningTask failed = KeyCloakProvisioningTask.builder().id("failed").userId("user-failed").status(FAILED).build();
+        KeyCloakProvisioningTask raced = KeyCloakProvisioningTask.builder().id("raced").userId("user-raced").status(FAILED).build();
+        when(repository.findByStatus(eq(FAILED), any())).thenReturn(List.of(failed, raced));
+        when(repository.rearm(eq("failed"), any())).thenReturn(Optional.of(failed));
+        when(repository.rearm(eq("raced"), any())).thenReturn(Optional.empty());
+
+        provisioningService.reconcile();
+
+        verify(repository).rearm(eq("failed"), any());
+        verify(repository).rearm(eq("raced"), any());
+        verify(repository, never()).deleteById(anyString());
+    }
+
+    @Test
+    void reconcileExpiresPasswordsPastTheRetention() {
+        when(repository.findByStatus(eq(FAILED), any())).thenReturn(List.of());
+
+        Instant before = Instant.now();
+        provisioningService.reconcile();
+
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).expirePasswords(cutoff.capture());
+        assertFalse(cutoff.getValue().isBefore(before.minus(Duration.ofDays(7))));
+        assertFalse(cutoff.getValue().isAfter(Instant.now().minus(Duration.ofDays(7))));
+    }
+
+    private KeyCloakProvisioningTask lastSaved(int saves) {
+        ArgumentCaptor<KeyCloakProvisioningTask> saved = ArgumentCaptor.forClass(KeyCloakProvisioningTask.class);
+        verify(repository, times(saves)).save(saved.capture());
+        return saved.getValue();
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setUserId("user-1");
+        return user;
+    }
+
+    private static FeignException feignException(int status) {
+        Request request = Request.create(Request.HttpMethod.POST, "/internal/api/auth/register/users", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        return FeignException.errorStatus("KeyCloakService#createKeyCloakUser", Response.builder()
+                .status(status)
+                .reason(HttpStatus.valueOf(status).getReasonPhrase())
+                .request(request)
+                .headers(Map.of()).build());
+    }
+}
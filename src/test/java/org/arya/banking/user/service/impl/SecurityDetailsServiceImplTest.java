@@ -0,0 +1,50 @@
+package org.arya.banking.user.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.arya.banking.user.dto.LoginAttemptDto;
+import org.arya.banking.user.dto.UserUpdateDto;
+import org.arya.banking.user.repository.LoginFailures;
+import org.arya.banking.user.repository.SecurityDetailsRepository;
+import org.arya.banking.user.service.UserService;
+import org.arya.banking.user.util.UserValidator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.arya.banking.common.constants.ResponseCodes.SECURITY_DETAILS_UPDATED_200;
+import static org.arya.banking.common.constants.ResponseKeys.DISABLE_USER;
+import static org.arya.banking.common.constants.ResponseKeys.RESPONSE_CODE;
+import static org.arya.banking.user.service.SecurityDetailsService.ACCOUNT_LOCK_FAILED_500;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SecurityDetailsServiceImplTest {
+
+    private final SecurityDetailsRepository securityDetailsRepository = mock(SecurityDetailsRepository.class);
+    private final UserService userService = mock(UserService.class);
+    private final SecurityDetailsServiceImpl securityDetailsService = new SecurityDetailsServiceImpl(securityDetailsRepository,
+            mock(UserValidator.class), userService, new SimpleMeterRegistry());
+
+    @Test
+    void failedLockIsReportedForThatUserOnly() {
+        when(securityDetailsRepository.incrementLoginFailedAttempts(anyMap(), anyInt(), isNull(), anyMap()))
+                .thenReturn(List.of(new LoginFailures("locked", 5, true), new LoginFailures("unlockable", 5, true)));
+        when(userService.updateUser(eq("unlockable"), any(UserUpdateDto.class))).thenThrow(new IllegalStateException("Mongo unavailable"));
+
+        List<Map<String, String>> responses = securityDetailsService.updateLoginAttempts(List.of(
+                new LoginAttemptDto("locked", true), new LoginAttemptDto("unlockable", true)));
+
+        assertEquals(SECURITY_DETAILS_UPDATED_200, responses.get(0).get(RESPONSE_CODE));
+        assertEquals("true", responses.get(0).get(DISABLE_USER));
+        assertEquals(ACCOUNT_LOCK_FAILED_500, responses.get(1).get(RESPONSE_CODE));
+        verify(userService).updateUser(eq("locked"), any(UserUpdateDto.class));
+    }
+}
@@ -0,0 +1,162 @@
+package org.arya.banking.user.service.impl;
+
+import com.google.gson.Gson;
+import jakarta.validation.Validator;
+import org.arya.banking.common.model.RegistrationProgress;
+import org.arya.banking.common.model.SecurityDetails;
+import org.arya.banking.common.model.User;
+import org.arya.banking.user.dto.RegisterDto;
+import org.arya.banking.user.dto.UserImportResult;
+import org.arya.banking.user.mapper.UserMapper;
+import org.arya.banking.user.outbox.KeyCloakProvisioningTask;
+import org.arya.banking.user.repository.RegistrationProgressRepository;
+import org.arya.banking.user.repository.SecurityDetailsRepository;
+import org.arya.banking.user.repository.UserRepository;
+import org.arya.banking.user.service.KeyCloakProvisioningService;
+import org.arya.banking.user.util.UserIdGenerator;
+import org.arya.banking.user.util.UserValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.arya.banking.user.dto.UserImportResult.Status.CREATED;
+import static org.arya.banking.user.dto.UserImportResult.Status.DUPLICATE;
+import static org.arya.banking.user.dto.UserImportResult.Status.FAILED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RegistrationProgressRepository registrationProgressRepository = mock(RegistrationProgressRepository.class);
+    private final SecurityDetailsRepository securityDetailsRepository = mock(SecurityDetailsRepository.class);
+    private final KeyCloakProvisioningService keyCloakProvisioningService = mock(KeyCloakProvisioningService.class);
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final UserMapper userMapper = mock(UserMapper.class);
+    private final UserValidator userValidator = mock(UserValidator.class);
+    private final Validator validator = mock(Validator.class);
+    private final Gson gson = new Gson();
+
+    private UserImportServiceImpl userImportService;
+
+    @BeforeEach
+    void setUp() {
+        AtomicInteger sequence = new AtomicInteger();
+        UserIdGenerator userIdGenerator = () -> "ARYA" + sequence.incrementAndGet();
+        userImportService = new UserImportServiceImpl(userRepository, registrationProgressRepository, securityDetailsRepository,
+                keyCloakProvisioningService, mongoTemplate, userMapper, userValidator, userIdGenerator, validator, gson);
+        ReflectionTestUtils.setField(userImportService, "batchSize", 10);
+
+        when(validator.validate(any(RegisterDto.class))).thenReturn(Set.of());
+        when(userMapper.toEntity(any(RegisterDto.class))).thenAnswer(invocation -> {
+            RegisterDto registerDto = invocation.getArgument(0);
+            User user = new User();
+            user.setEmailId(registerDto.emailId());
+            user.setPrimaryContactNumber(registerDto.primaryContactNumber());
+            return user;
+        });
+        when(userValidator.generateRegisteredUser(any(User.class), anyString())).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setUserId(invocation.getArgument(1));
+            return user;
+        });
+        when(userRepository.findByEmailIdInOrPrimaryContactNumberIn(any(), any())).thenReturn(List.of());
+        BulkOperations bulkOperations = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void importedBatchReportsEveryUserCreated() throws IOException {
+        List<UserImportResult> results = importUsers(record("alice@example.com", "9000000001"), record("bob@example.com", "9000000002"));
+
+        assertEquals(List.of(CREATED, CREATED), results.stream().map(UserImportResult::status).toList());
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(User.class));
+    }
+
+    @Test
+    void failedSecurityDetailsInsertRemovesTheInsertedUsers() throws IOException {
+        when(securityDetailsRepository.insert(anyList())).thenThrow(new IllegalStateException("Mongo unavailable"));
+
+        List<UserImportResult> results = importUsers(record("alice@example.com", "9000000001"), record("bob@example.com", "9000000002"));
+
+        assertEquals(List.of(FAILED, FAILED), results.stream().map(UserImportResult::status).toList());
+        assertRemoved(User.class, "ARYA1", "ARYA2");
+        assertRemoved(RegistrationProgress.class, "ARYA1", "ARYA2");
+        assertRemoved(SecurityDetails.class, "ARYA1", "ARYA2");
+        verify(keyCloakProvisioningService, never()).enqueueAll(anyList(), anyList());
+    }
+
+    @Test
+    void failedProvisioningEnqueueRemovesTheInsertedUsersAndTasks() throws IOException {
+        doThrow(new IllegalStateException("Mongo unavailable")).when(keyCloakProvisioningService).enqueueAll(anyList(), anyList());
+
+        List<UserImportResult> results = importUsers(record("alice@example.com", "9000000001"));
+
+        assertEquals(List.of(FAILED), results.stream().map(UserImportResult::status).toList());
+        assertRemoved(KeyCloakProvisioningTask.class, "ARYA1");
+        assertRemoved(User.class, "ARYA1");
+    }
+
+    @Test
+    void duplicatesKeepTheirResultWhenTheRestOfTheBatchFails() throws IOException {
+        User existing = new User();
+        existing.setEmailId("taken@example.com");
+        when(userRepository.findByEmailIdInOrPrimaryContactNumberIn(any(), any())).thenReturn(List.of(existing));
+        when(registrationProgressRepository.insert(anyList())).thenThrow(new IllegalStateException("Mongo unavailable"));
+
+        List<UserImportResult> results = importUsers(record("taken@example.com", "9000000001"), record("bob@example.com", "9000000002"));
+
+        assertEquals(List.of(DUPLICATE, FAILED), results.stream().map(UserImportResult::status).toList());
+        assertRemoved(User.class, "ARYA1");
+    }
+
+    @Test
+    void failedCompensationStillReportsTheBatchFailed() throws IOException {
+        when(securityDetailsRepository.insert(anyList())).thenThrow(new IllegalStateException("Mongo unavailable"));
+        when(mongoTemplate.remove(any(Query.class), eq(KeyCloakProvisioningTask.class))).thenThrow(new IllegalStateException("Mongo unavailable"));
+
+        List<UserImportResult> results = importUsers(record("alice@example.com", "9000000001"));
+
+        assertEquals(List.of(FAILED), results.stream().map(UserImportResult::status).toList());
+    }
+
+    private void assertRemoved(Class<?> entityClass, String... userIds) {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).remove(query.capture(), eq(entityClass));
+        String criteria = query.getValue().getQueryObject().toJson();
+        Arrays.stream(userIds).forEach(userId -> assertTrue(criteria.contains(userId), criteria));
+    }
+
+    private List<UserImportResult> importUsers(String... records) throws IOException {
+        ByteArrayOutputStream results = new ByteArrayOutputStream();
+        userImportService.importUsers(new ByteArrayInputStream(String.join("\n", records).getBytes(UTF_8)), results);
+        return results.toString(UTF_8).lines().map(line -> gson.fromJson(line, UserImportResult.class)).toList();
+    }
+
+    private String record(String emailId, String contactNumber) {
+        return gson.toJson(new RegisterDto("John", "Doe", emailId, "MySecureP@ssword1!", contactNumber));
+    }
+}
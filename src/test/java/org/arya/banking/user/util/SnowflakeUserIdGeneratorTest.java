@@ -0,0 +1,76 @@
+package org.arya.banking.user.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeUserIdGeneratorTest {
+
+    private static final int THREADS = 16;
+    private static final int IDS_PER_THREAD = 100_000;
+
+    @Test
+    void generatesUniqueIdsAcrossThreadsAndNodes() throws Exception {
+        SnowflakeUserIdGenerator first = new SnowflakeUserIdGenerator(1, System::currentTimeMillis);
+        SnowflakeUserIdGenerator second = new SnowflakeUserIdGenerator(2, System::currentTimeMillis);
+        Set<String> ids = ConcurrentHashMap.newKeySet(THREADS * IDS_PER_THREAD);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                UserIdGenerator generator = thread % 2 == 0 ? first : second;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids.add(generator.generate());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+        ids.forEach(id -> assertTrue(id.matches("ARYA[0-9A-HJKMNP-TV-Z]{13}"), id));
+    }
+
+    @Test
+    void keepsIdsIncreasingWhenSequenceOverflowsOrClockMovesBack() {
+        AtomicLong now = new AtomicLong(SnowflakeUserIdGenerator.EPOCH + 1_000);
+        SnowflakeUserIdGenerator generator = new SnowflakeUserIdGenerator(7, now::get);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                now.addAndGet(-500);
+            }
+            long next = generator.nextId();
+            assertTrue(next > previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void rejectsNodeIdOutsideTenBits() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeUserIdGenerator(1024, System::currentTimeMillis));
+    }
+}
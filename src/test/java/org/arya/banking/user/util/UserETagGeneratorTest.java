@@ -0,0 +1,41 @@
+package org.arya.banking.user.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserETagGeneratorTest {
+
+    private static final String CURRENT = UserETagGenerator.generate(7L);
+
+    @Test
+    void strongTagMatchesItsVersion() {
+        assertEquals(Set.of(7L), UserETagGenerator.versions("\"" + CURRENT + "\""));
+    }
+
+    @Test
+    void weakTagNeverMatches() {
+        assertTrue(UserETagGenerator.versions("W/\"" + CURRENT + "\"").isEmpty());
+    }
+
+    @Test
+    void anyTagOfTheListMayMatch() {
+        assertEquals(Set.of(6L, 7L), UserETagGenerator.versions("\"6\", W/\"8\", \"" + CURRENT + "\""));
+        assertTrue(UserETagGenerator.versions("\"q2xvZ2lu\", W/\"" + CURRENT + "\"").isEmpty());
+    }
+
+    @Test
+    void wildcardMatchesAnyTag() {
+        assertTrue(UserETagGenerator.matchesAny("*"));
+        assertFalse(UserETagGenerator.matchesAny("\"" + CURRENT + "\""));
+    }
+
+    @Test
+    void unquotedTagDoesNotMatch() {
+        assertTrue(UserETagGenerator.versions(CURRENT).isEmpty());
+    }
+}
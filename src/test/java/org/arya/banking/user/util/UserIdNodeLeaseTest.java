@@ -0,0 +1,77 @@
+package org.arya.banking.user.util;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Testcontainers(disabledWithoutDocker = true)
+class UserIdNodeLeaseTest {
+
+    @Container
+    private static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient mongoClient;
+    private static MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void connect() {
+        mongoClient = MongoClients.create(MONGO.getReplicaSetUrl());
+        mongoTemplate = new MongoTemplate(mongoClient, "arya-user-test");
+    }
+
+    @AfterAll
+    static void disconnect() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(UserIdNodeLease.COLLECTION);
+    }
+
+    @Test
+    void liveInstancesNeverShareANode() {
+        long first = new UserIdNodeLease(mongoTemplate, Duration.ofMinutes(5)).acquire();
+        long second = new UserIdNodeLease(mongoTemplate, Duration.ofMinutes(5)).acquire();
+
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    void releasedNodeIsLeasedAgain() {
+        UserIdNodeLease first = new UserIdNodeLease(mongoTemplate, Duration.ofMinutes(5));
+        long nodeId = first.acquire();
+        first.release();
+
+        assertEquals(nodeId, new UserIdNodeLease(mongoTemplate, Duration.ofMinutes(5)).acquire());
+    }
+
+    @Test
+    void generatorStopsOnceTheLeaseIsTakenOver() {
+        UserIdNodeLease lease = new UserIdNodeLease(mongoTemplate, Duration.ofMinutes(5));
+        SnowflakeUserIdGenerator generator = new SnowflakeUserIdGenerator(lease, System::currentTimeMillis);
+        assertDoesNotThrow(generator::generate);
+
+        mongoTemplate.getCollection(UserIdNodeLease.COLLECTION).updateMany(new Document(),
+                new Document("$set", new Document("owner", "another-instance").append("expiresAt", new Date(Long.MAX_VALUE))));
+        lease.renew();
+
+        assertThrows(IllegalStateException.class, generator::generate);
+    }
+}